@@ -0,0 +1,95 @@
+package org.example.benchmark;
+
+import org.example.entity.BankAccount;
+import org.example.entity.User;
+import org.example.enums.CategoryType;
+import org.example.service.AccountExecutor;
+import org.example.service.AnalyticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность исполнителя операций при {@value #REQUESTS} одновременно поставленных в очередь запросах.
+ * Первая операция каждого счета ждет общий сигнал, поэтому все запросы оказываются в почтовых ящиках
+ * до выполнения первого из них; результат — запросов в секунду, включая постановку в очередь.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AccountExecutorBenchmark {
+
+    static final int REQUESTS = 200_000;
+
+    private static final BigDecimal DEPOSIT = new BigDecimal("10");
+    private static final BigDecimal PAYMENT = new BigDecimal("4");
+
+    @State(Scope.Benchmark)
+    public static class Accounts {
+        @Param({"100", "1000", "10000"})
+        public int accountCount;
+
+        public AnalyticsService analyticsService;
+        public List<BankAccount> accounts;
+        public AccountExecutor executor;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            analyticsService = new AnalyticsService();
+            accounts = new ArrayList<>(accountCount);
+            for (int i = 0; i < accountCount; i++) {
+                User user = new User("user" + i, "Benchmark");
+                analyticsService.createAccount(user, "ACC" + i);
+                accounts.add(user.getAccounts().getFirst());
+            }
+            executor = new AccountExecutor(analyticsService);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            executor.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void depositsAndPaymentsInFlight(Accounts state) {
+        CountDownLatch gate = new CountDownLatch(1);
+        for (BankAccount account : state.accounts) {
+            state.executor.submit(account, () -> {
+                gate.await();
+                return null;
+            });
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; futures.size() < REQUESTS; i++) {
+            BankAccount account = state.accounts.get(i % state.accounts.size());
+            futures.add(state.executor.deposit(account, DEPOSIT));
+            futures.add(state.executor.payment(account, CategoryType.RESTAURANT, PAYMENT));
+        }
+
+        gate.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+}
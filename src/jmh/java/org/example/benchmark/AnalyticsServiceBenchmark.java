@@ -0,0 +1,112 @@
+package org.example.benchmark;
+
+import org.example.dto.PaymentBatchResult;
+import org.example.dto.PaymentRequest;
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.service.AnalyticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки публичных методов AnalyticsService
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class AnalyticsServiceBenchmark {
+
+    private static final Set<String> CATEGORIES = Set.of("TAXI", "RESTAURANT", "HEALTH");
+
+    private final AnalyticsService analyticsService = new AnalyticsService();
+
+    @Benchmark
+    public BigDecimal getMonthlySpendingByCategory(SyntheticUserState state) {
+        return analyticsService.getMonthlySpendingByCategory(state.user.getAccounts().getFirst(), "TAXI");
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> getMonthlySpendingByCategories(SyntheticUserState state) {
+        return analyticsService.getMonthlySpendingByCategories(state.user, CATEGORIES);
+    }
+
+    @Benchmark
+    public LinkedHashMap<String, List<Transaction>> getTransactionHistorySortedByAmount(SyntheticUserState state) {
+        return analyticsService.getTransactionHistorySortedByAmount(state.user);
+    }
+
+    @Benchmark
+    public List<Transaction> getLastNTransactions(SyntheticUserState state) {
+        return analyticsService.getLastNTransactions(state.user, 10);
+    }
+
+    @Benchmark
+    public PriorityQueue<Transaction> getTopNLargestTransactions(SyntheticUserState state) {
+        return analyticsService.getTopNLargestTransactions(state.user, 5);
+    }
+
+    @Benchmark
+    public PriorityQueue<Transaction> getTopNLargestTransactionsInWindow(SyntheticUserState state) {
+        LocalDateTime now = LocalDateTime.now();
+        return analyticsService.getTopNLargestTransactions(state.user, 5, now.minusDays(7), now, "TAXI");
+    }
+
+    /**
+     * Платежи пишут в историю, поэтому счет пересоздается на каждой итерации
+     */
+    @State(Scope.Thread)
+    public static class PaymentState {
+        public AnalyticsService analyticsService;
+        public User user;
+        public BankAccount account;
+        public List<PaymentRequest> batch;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            analyticsService = new AnalyticsService();
+            user = new User("bench-payer", "Benchmark");
+            analyticsService.createAccount(user, "PAY");
+            account = user.getAccounts().getFirst();
+            account.deposit(SyntheticData.UNLIMITED_BALANCE);
+            batch = SyntheticData.randomPayments(new Random(7L), 1_000);
+        }
+    }
+
+    @Benchmark
+    public void payment(PaymentState state) {
+        state.analyticsService.payment(state.account, "TAXI", BigDecimal.TEN);
+    }
+
+    @Benchmark
+    public PaymentBatchResult paymentsBatch(PaymentState state) {
+        return state.analyticsService.paymentsBatch(state.account, state.batch);
+    }
+
+    @Benchmark
+    public void createAccount(PaymentState state) {
+        state.analyticsService.createAccount(state.user, "NEW");
+    }
+}
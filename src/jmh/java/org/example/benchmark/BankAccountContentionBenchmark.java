@@ -0,0 +1,76 @@
+package org.example.benchmark;
+
+import org.example.entity.BankAccount;
+import org.example.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки пополнения и списания под нагрузкой из нескольких потоков.
+ * Сравниваются один общий счет и отдельный счет на каждый поток; кол-во потоков меняется через -t.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Threads(4)
+public class BankAccountContentionBenchmark {
+
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @State(Scope.Benchmark)
+    public static class SharedAccount {
+        public BankAccount account;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            account = new BankAccount("SHARED", new User("bench-user", "Benchmark"));
+            account.deposit(SyntheticData.UNLIMITED_BALANCE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OwnAccount {
+        public BankAccount account;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            account = new BankAccount("OWN-" + Thread.currentThread().getId(), new User("bench-user", "Benchmark"));
+            account.deposit(SyntheticData.UNLIMITED_BALANCE);
+        }
+    }
+
+    @Benchmark
+    public void depositShared(SharedAccount state) {
+        state.account.deposit(AMOUNT);
+    }
+
+    @Benchmark
+    public void withdrawShared(SharedAccount state) {
+        state.account.withdraw(AMOUNT);
+    }
+
+    @Benchmark
+    public void depositOwn(OwnAccount state) {
+        state.account.deposit(AMOUNT);
+    }
+
+    @Benchmark
+    public void withdrawOwn(OwnAccount state) {
+        state.account.withdraw(AMOUNT);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.benchmark;
+
+import org.example.dto.PaymentRequest;
+import org.example.entity.BankAccount;
+import org.example.entity.User;
+import org.example.enums.CategoryType;
+import org.example.service.AnalyticsService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генератор синтетических пользователей для бенчмарков
+ */
+final class SyntheticData {
+
+    /**
+     * Баланс, которого хватает на любое кол-во платежей в бенчмарке
+     */
+    static final BigDecimal UNLIMITED_BALANCE = new BigDecimal("1000000000000000");
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final CategoryType[] CATEGORIES = CategoryType.values();
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Метод создает пользователя с заданным кол-вом счетов и общим объемом истории
+     * @param accounts кол-во счетов
+     * @param historySize общее кол-во транзакций по всем счетам
+     * @param seed зерно генератора случайных чисел
+     * @return пользователь со сгенерированной историей
+     */
+    static User createUser(int accounts, int historySize, long seed) {
+        AnalyticsService analyticsService = new AnalyticsService();
+        Random random = new Random(seed);
+        User user = new User("bench-user", "Benchmark");
+
+        // каждый платеж пишет в историю две транзакции: PAYMENT и WITHDRAWAL
+        int paymentsPerAccount = Math.max(1, historySize / accounts / 2);
+        for (int a = 0; a < accounts; a++) {
+            analyticsService.createAccount(user, "ACC" + a);
+            BankAccount account = user.getAccounts().get(a);
+            account.deposit(UNLIMITED_BALANCE);
+
+            for (int done = 0; done < paymentsPerAccount; done += BATCH_SIZE) {
+                analyticsService.paymentsBatch(account, randomPayments(random, Math.min(BATCH_SIZE, paymentsPerAccount - done)));
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Метод создает пачку случайных платежей
+     * @param random генератор случайных чисел
+     * @param count кол-во платежей
+     * @return платежи
+     */
+    static List<PaymentRequest> randomPayments(Random random, int count) {
+        List<PaymentRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(new PaymentRequest(
+                    CATEGORIES[random.nextInt(CATEGORIES.length)].name(),
+                    BigDecimal.valueOf(random.nextInt(1, 100_000), 2)));
+        }
+        return requests;
+    }
+}
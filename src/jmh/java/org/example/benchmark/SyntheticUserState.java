@@ -0,0 +1,29 @@
+package org.example.benchmark;
+
+import org.example.entity.User;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Пользователь с синтетической историей, общий для всех потоков бенчмарка.
+ * Размеры задаются через -p accounts=... -p historySize=...
+ */
+@State(Scope.Benchmark)
+public class SyntheticUserState {
+
+    @Param({"1", "16"})
+    public int accounts;
+
+    @Param({"1000", "100000", "10000000"})
+    public int historySize;
+
+    public User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        user = SyntheticData.createUser(accounts, historySize, 42L);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.benchmark;
+
+import org.example.entity.Transaction;
+import org.example.enums.TransactionType;
+import org.example.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки публичных методов TransactionService
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class TransactionServiceBenchmark {
+
+    private final TransactionService transactionService = new TransactionService();
+
+    @Benchmark
+    public List<Transaction> filterTransactions(SyntheticUserState state) {
+        return transactionService.filterTransactions(state.user,
+                transaction -> TransactionType.PAYMENT.equals(transaction.getType()));
+    }
+
+    @Benchmark
+    public List<String> transformTransactions(SyntheticUserState state) {
+        return transactionService.transformTransactions(state.user, Transaction::getId);
+    }
+
+    @Benchmark
+    public void processTransactions(SyntheticUserState state, Blackhole blackhole) {
+        transactionService.processTransactions(state.user, blackhole::consume);
+    }
+
+    @Benchmark
+    public List<Transaction> createTransactionList(SyntheticUserState state) {
+        return transactionService.createTransactionList(() -> state.user.getAccounts().getFirst().getTransactions());
+    }
+
+    @Benchmark
+    public List<Transaction> mergeTransactionLists(SyntheticUserState state) {
+        List<Transaction> first = state.user.getAccounts().getFirst().getTransactions();
+        List<Transaction> last = state.user.getAccounts().getLast().getTransactions();
+        return transactionService.mergeTransactionLists(first, last, (list1, list2) -> {
+            List<Transaction> merged = new ArrayList<>(list1.size() + list2.size());
+            merged.addAll(list1);
+            merged.addAll(list2);
+            return merged;
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.dto;
+
+import lombok.Getter;
+import org.example.entity.Transaction;
+
+import java.util.List;
+
+@Getter
+public class PaymentBatchResult {
+    /**
+     * Проведенные платежи в порядке пакета
+     */
+    private final List<Transaction> payments;
+    /**
+     * Отклоненные платежи с причинами отказа
+     */
+    private final List<PaymentRejection> rejections;
+
+    /**
+     * Конструктор класса PaymentBatchResult
+     * @param payments проведенные платежи
+     * @param rejections отклоненные платежи
+     */
+    public PaymentBatchResult(List<Transaction> payments, List<PaymentRejection> rejections) {
+        this.payments = payments;
+        this.rejections = rejections;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.dto;
+
+import lombok.Getter;
+
+@Getter
+public class PaymentRejection {
+    /**
+     * Позиция платежа в пакете
+     */
+    private final int index;
+    /**
+     * Отклоненный платеж
+     */
+    private final PaymentRequest request;
+    /**
+     * Причина отказа
+     */
+    private final String reason;
+
+    /**
+     * Конструктор класса PaymentRejection
+     * @param index позиция платежа в пакете
+     * @param request отклоненный платеж
+     * @param reason причина отказа
+     */
+    public PaymentRejection(int index, PaymentRequest request, String reason) {
+        this.index = index;
+        this.request = request;
+        this.reason = reason;
+    }
+}
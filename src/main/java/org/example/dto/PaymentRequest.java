@@ -0,0 +1,27 @@
+package org.example.dto;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+public class PaymentRequest {
+    /**
+     * Категория платежа
+     */
+    private final String category;
+    /**
+     * Сумма платежа
+     */
+    private final BigDecimal amount;
+
+    /**
+     * Конструктор класса PaymentRequest
+     * @param category категория платежа
+     * @param amount сумма платежа
+     */
+    public PaymentRequest(String category, BigDecimal amount) {
+        this.category = category;
+        this.amount = amount;
+    }
+}
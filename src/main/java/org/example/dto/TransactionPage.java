@@ -0,0 +1,28 @@
+package org.example.dto;
+
+import lombok.Getter;
+import org.example.entity.Transaction;
+
+import java.util.List;
+
+@Getter
+public class TransactionPage {
+    /**
+     * Транзакции страницы в порядке обхода
+     */
+    private final List<Transaction> transactions;
+    /**
+     * Курсор для чтения следующей страницы или {@code null}, если транзакции закончились
+     */
+    private final String nextCursor;
+
+    /**
+     * Конструктор класса TransactionPage
+     * @param transactions транзакции страницы
+     * @param nextCursor курсор следующей страницы
+     */
+    public TransactionPage(List<Transaction> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+}
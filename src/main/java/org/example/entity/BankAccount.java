@@ -1,13 +1,31 @@
 package org.example.entity;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.example.enums.CategoryType;
 import org.example.enums.TransactionType;
+import org.example.exceptions.TransferException;
+import org.example.history.CategorySpending;
+import org.example.history.CategoryTotals;
+import org.example.history.HistoryView;
+import org.example.history.TransactionHistory;
+import org.example.listeners.AccountChange;
+import org.example.listeners.TransactionListener;
+import org.example.listeners.TransactionLog;
+import org.example.metrics.Metrics;
+import org.example.metrics.Operation;
+import org.example.money.Money;
 import org.example.validators.TransferValidator;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 @Setter
 @Getter
@@ -17,19 +35,48 @@ public class BankAccount {
      */
     private final String accountNumber;
     /**
-     * Текущий баланс счета в валюте
+     * Текущий баланс счета в копейках; в BigDecimal переводится только при выдаче наружу
      */
-    private BigDecimal balance;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile Money balance;
     /**
      * Владелец банковского счета
      */
     private final User owner;
     /**
-     * История транзакций
+     * История транзакций, упорядоченная по дате
      */
-    private final List<Transaction> transactions;
+    private final TransactionHistory transactions;
+    /**
+     * Накопленные суммы платежей по категориям и дням
+     */
+    @Getter(AccessLevel.NONE)
+    private final CategorySpending categorySpending;
 
     private final TransferValidator transferValidator = new TransferValidator();
+    /**
+     * Блокировка счета, под которой меняются баланс и история; наружу не выдается, см. {@link #withLock(Supplier)}
+     */
+    @Getter(AccessLevel.NONE)
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Подписчики на новые транзакции счета
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile TransactionListener[] listeners = new TransactionListener[0];
+    /**
+     * Журнал, в который изменения счета записываются до их применения, или {@code null}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private TransactionLog log;
+    /**
+     * Версия истории счета: увеличивается под блокировкой счета после каждого дописывания транзакций
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile long version;
 
     /**
      * Конструктор класса BankAccount
@@ -38,9 +85,81 @@ public class BankAccount {
      */
     public BankAccount(String accountNumber, User owner) {
         this.accountNumber = accountNumber;
-        this.balance = BigDecimal.ZERO;
+        this.balance = Money.ZERO;
         this.owner = owner;
-        this.transactions = new ArrayList<>();
+        this.transactions = new TransactionHistory();
+        this.categorySpending = new CategorySpending();
+    }
+
+    /**
+     * Метод возвращает текущий баланс счета
+     * @return баланс
+     */
+    public BigDecimal getBalance() {
+        return balance.toBigDecimal();
+    }
+
+    /**
+     * Метод возвращает текущий баланс счета в копейках, без перевода в BigDecimal
+     * @return баланс
+     */
+    public Money getBalanceMoney() {
+        return balance;
+    }
+
+    /**
+     * Метод устанавливает баланс счета
+     * @param balance баланс
+     */
+    public void setBalance(BigDecimal balance) {
+        Money updated = Money.of(balance);
+        lock.lock();
+        try {
+            if (log != null) {
+                log.write(List.of(new AccountChange(this, updated, List.of())));
+            }
+            this.balance = updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод выполняет действие под блокировкой счета, чтобы несколько операций со счетом прошли атомарно.
+     * Блокировки нескольких счетов нужно брать в одном и том же порядке, например по номерам счетов.
+     * @param action действие
+     * @return результат действия
+     * @param <T> тип результата
+     */
+    public <T> T withLock(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод возвращает сумму платежей по категории за период
+     * @param category категория платежа
+     * @param from первый день окна (включительно)
+     * @param to последний день окна (включительно)
+     * @return сумма платежей или {@code null}, если платежей в окне не было
+     */
+    public BigDecimal getSpending(CategoryType category, LocalDate from, LocalDate to) {
+        return categorySpending.getSpending(category, from, to);
+    }
+
+    /**
+     * Метод прибавляет платежи по категориям за период к суммам по категориям
+     * @param categories категории платежей
+     * @param from первый день окна (включительно)
+     * @param to последний день окна (включительно)
+     * @param target суммы по категориям
+     */
+    public void collectSpending(Set<CategoryType> categories, LocalDate from, LocalDate to, CategoryTotals target) {
+        categorySpending.collectSpending(categories, from, to, target);
     }
 
     /**
@@ -48,10 +167,24 @@ public class BankAccount {
      * @param amount кол-во денег для депозита
      */
     public void deposit(BigDecimal amount) {
-        transferValidator.validateAmount(amount);
-        Transaction transaction = new Transaction(amount, TransactionType.DEPOSIT, null,null, this);
-        balance = balance.add(amount);
-        transactions.add(transaction);
+        long start = Metrics.start();
+        try {
+            transferValidator.validateAmount(amount);
+            Runnable publication;
+            lock.lock();
+            try {
+                Transaction transaction = new Transaction(amount, TransactionType.DEPOSIT, null, null, this);
+                publication = commit(balance.add(Money.of(amount)), List.of(transaction));
+            } finally {
+                lock.unlock();
+            }
+            publish(publication);
+        } catch (TransferException e) {
+            Metrics.reject(Operation.DEPOSIT);
+            throw e;
+        } finally {
+            Metrics.stop(Operation.DEPOSIT, start);
+        }
     }
 
     /**
@@ -59,25 +192,295 @@ public class BankAccount {
      * @param amount кол-во денег для вывода
      */
     public void withdraw(BigDecimal amount) {
-        transferValidator.checkTransfer(this, amount);
-        Transaction transaction = new Transaction(amount, TransactionType.WITHDRAWAL, null, this, null);
-        balance = balance.subtract(amount);
-        transactions.add(transaction);
+        long start = Metrics.start();
+        Runnable publication = null;
+        lock.lock();
+        try {
+            transferValidator.checkTransfer(this, amount);
+            Transaction transaction = new Transaction(amount, TransactionType.WITHDRAWAL, null, this, null);
+            publication = commit(balance.subtract(Money.of(amount)), List.of(transaction));
+        } catch (TransferException e) {
+            Metrics.reject(Operation.WITHDRAW);
+            throw e;
+        } finally {
+            lock.unlock();
+            publish(publication);
+            Metrics.stop(Operation.WITHDRAW, start);
+        }
     }
 
     /**
-     * Метод добавляет транзакцию в историю по счету
+     * Метод проводит платеж: регистрирует его и списывает деньги со счета.
+     * Проверка баланса и списание выполняются под одной блокировкой, поэтому параллельные платежи не уводят счет в минус.
+     * В историю платеж попадает двумя транзакциями: самим платежом и снятием на ту же сумму.
+     * @param amount сумма платежа
+     * @param category категория платежа
+     */
+    public void payment(BigDecimal amount, CategoryType category) {
+        long start = Metrics.start();
+        Runnable publication = null;
+        lock.lock();
+        try {
+            transferValidator.checkTransfer(this, amount);
+            Transaction payment = new Transaction(amount, TransactionType.PAYMENT, category, this, null);
+            Transaction withdrawal = new Transaction(amount, TransactionType.WITHDRAWAL, null, this, null);
+            publication = commit(balance.subtract(Money.of(amount)), List.of(payment, withdrawal));
+        } catch (TransferException e) {
+            Metrics.reject(Operation.PAYMENT);
+            throw e;
+        } finally {
+            lock.unlock();
+            publish(publication);
+            Metrics.stop(Operation.PAYMENT, start);
+        }
+    }
+
+    /**
+     * Метод отражает перевод на обоих счетах: списывает сумму у отправителя, зачисляет получателю
+     * и сохраняет транзакцию в истории обоих счетов. Если счета пишут в один журнал, обе стороны перевода
+     * попадают в него одной записью; записи в разные журналы независимы. Вызывается только под блокировками
+     * обоих счетов, проверка баланса остается на стороне вызывающего.
+     * @param transaction транзакция перевода
+     * @return оповещение подписчиков, которое вызывающий выполняет после снятия обеих блокировок, или {@code null}
+     */
+    public static Runnable applyTransfer(Transaction transaction) {
+        BankAccount source = transaction.getSourceAccount();
+        BankAccount target = transaction.getTargetAccount();
+        if (!source.lock.isHeldByCurrentThread() || !target.lock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Перевод применяется без блокировки счетов "
+                    + source.accountNumber + " и " + target.accountNumber);
+        }
+        TransactionHistory.checkAmount(transaction);
+        Money amount = Money.of(transaction.getAmount());
+        List<Transaction> added = List.of(transaction);
+        AccountChange debit = new AccountChange(source, source.balance.subtract(amount), added);
+        AccountChange credit = new AccountChange(target, target.balance.add(amount), added);
+
+        if (source.log != null && source.log == target.log) {
+            source.log.write(List.of(debit, credit));
+        } else {
+            source.writeAhead(debit);
+            target.writeAhead(credit);
+        }
+        Runnable sourcePublication = source.apply(debit.balance(), added);
+        Runnable targetPublication = target.apply(credit.balance(), added);
+        if (sourcePublication == null || targetPublication == null) {
+            return sourcePublication != null ? sourcePublication : targetPublication;
+        }
+        return () -> {
+            try {
+                sourcePublication.run();
+            } finally {
+                targetPublication.run();
+            }
+        };
+    }
+
+    /**
+     * Метод отражает на счете пачку уже проверенных платежей: списывает общую сумму и дописывает транзакции в историю.
+     * Вызывается только под блокировкой счета, проверка баланса остается на стороне вызывающего.
+     * @param batch транзакции пачки в хронологическом порядке
+     * @param total общая сумма списания
+     * @return оповещение подписчиков, которое вызывающий выполняет после снятия блокировки, или {@code null}
+     */
+    public Runnable applyPayments(List<Transaction> batch, Money total) {
+        if (!lock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Платежи применяются без блокировки счета " + accountNumber);
+        }
+        return commit(balance.subtract(total), batch);
+    }
+
+    /**
+     * Метод восстанавливает состояние счета из сохраненной истории, не оповещая подписчиков
+     * @param history транзакции в хронологическом порядке
+     * @param restoredBalance баланс после последней транзакции
+     */
+    public void restore(List<Transaction> history, BigDecimal restoredBalance) {
+        Money restored = Money.of(restoredBalance);
+        lock.lock();
+        try {
+            transactions.addAll(history);
+            balance = restored;
+            for (Transaction transaction : history) {
+                categorySpending.add(transaction);
+            }
+            version++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод подключает журнал: дальше каждое изменение счета сначала записывается в него
+     * @param transactionLog журнал
+     * @throws IllegalStateException если к счету уже подключен другой журнал
+     */
+    public void attachLog(TransactionLog transactionLog) {
+        lock.lock();
+        try {
+            if (log != null && log != transactionLog) {
+                throw new IllegalStateException("Счет " + accountNumber + " уже подключен к журналу");
+            }
+            log = transactionLog;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод отключает журнал от счета
+     * @param transactionLog журнал
+     */
+    public void detachLog(TransactionLog transactionLog) {
+        lock.lock();
+        try {
+            if (log == transactionLog) {
+                log = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод подписывает слушателя на новые транзакции счета
+     * @param listener слушатель
+     */
+    public void addListener(TransactionListener listener) {
+        lock.lock();
+        try {
+            TransactionListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+            updated[listeners.length] = listener;
+            listeners = updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод отписывает слушателя от новых транзакций счета
+     * @param listener слушатель
+     */
+    public void removeListener(TransactionListener listener) {
+        lock.lock();
+        try {
+            listeners = Arrays.stream(listeners)
+                    .filter(current -> current != listener)
+                    .toArray(TransactionListener[]::new);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод добавляет транзакцию в историю по счету.
+     * Сумма проверяется до изменения счета, так что неподходящая транзакция не оставляет следов в истории.
      * @param transaction транзакция
+     * @throws IllegalArgumentException если сумму транзакции нельзя сохранить
      */
     public void addTransaction(Transaction transaction) {
-        transactions.add(transaction);
+        Runnable publication;
+        lock.lock();
+        try {
+            publication = commit(balance, List.of(transaction));
+        } finally {
+            lock.unlock();
+        }
+        publish(publication);
     }
 
     /**
-     * Метод возвращает историю транзакицй по счету
-     * @return копия истории транзакций
+     * Метод возвращает историю транзакицй по счету.
+     * История только дополняется, поэтому снимок берется без копирования и не меняется при новых транзакциях.
+     * @return неизменяемый снимок истории транзакций
      */
-    public List<Transaction> getTransactions() {
-        return List.copyOf(transactions);
+    public HistoryView getTransactions() {
+        return transactions.all();
+    }
+
+    /**
+     * Метод возвращает транзакции за период
+     * @param from начало периода (включительно)
+     * @param to конец периода (не включительно)
+     * @return неизменяемое представление транзакций за период в хронологическом порядке
+     */
+    public HistoryView transactionsBetween(LocalDateTime from, LocalDateTime to) {
+        return transactions.between(from, to);
+    }
+
+    /**
+     * Метод возвращает последние N транзакций по счету
+     * @param n кол-во транзакций
+     * @return неизменяемое представление последних транзакций, начиная с самой новой
+     */
+    public HistoryView latest(int n) {
+        return transactions.latest(n);
+    }
+
+    /**
+     * Метод проверяет транзакции, записывает изменение в журнал и только затем применяет его к счету,
+     * так что отказ журнала оставляет счет без изменений.
+     * Вызывается только под блокировкой счета.
+     * @param updated баланс после транзакций
+     * @param added транзакции в порядке добавления
+     * @return оповещение подписчиков, которое выполняется после снятия блокировки, или {@code null}
+     */
+    private Runnable commit(Money updated, List<Transaction> added) {
+        added.forEach(TransactionHistory::checkAmount);
+        writeAhead(new AccountChange(this, updated, added));
+        return apply(updated, added);
+    }
+
+    private void writeAhead(AccountChange change) {
+        if (log != null) {
+            log.write(List.of(change));
+        }
+    }
+
+    /**
+     * Метод сохраняет транзакции в истории, устанавливает баланс после них и обновляет агрегаты по категориям.
+     * Суммы к этому моменту уже проверены. Вызывается только под блокировкой счета.
+     * @param updated баланс после транзакций
+     * @param added транзакции в порядке добавления
+     * @return оповещение подписчиков, которое выполняется после снятия блокировки, или {@code null}
+     */
+    private Runnable apply(Money updated, List<Transaction> added) {
+        if (added.size() == 1) {
+            transactions.add(added.getFirst());
+        } else {
+            transactions.addAll(added);
+        }
+        balance = updated;
+        for (Transaction transaction : added) {
+            categorySpending.add(transaction);
+        }
+        version++;
+        return listeners.length > 0 ? notifyListeners(added) : null;
+    }
+
+    /**
+     * Метод оповещает подписчиков о новых транзакциях.
+     * Вызывается только под блокировкой счета, поэтому подписчики видят изменения в порядке их применения;
+     * ожидающую часть оповещения подписчики возвращают, и она выполняется уже без блокировки.
+     * @param added новые транзакции
+     * @return отложенные части оповещения или {@code null}
+     */
+    private Runnable notifyListeners(List<Transaction> added) {
+        TransactionListener[] current = listeners;
+        Runnable[] deferred = new Runnable[current.length];
+        for (int i = 0; i < current.length; i++) {
+            deferred[i] = current[i].onTransactions(this, added);
+        }
+        return () -> {
+            for (Runnable action : deferred) {
+                publish(action);
+            }
+        };
+    }
+
+    private static void publish(Runnable publication) {
+        if (publication != null) {
+            publication.run();
+        }
     }
 }
@@ -4,18 +4,26 @@ import lombok.Getter;
 import lombok.Setter;
 import org.example.enums.CategoryType;
 import org.example.enums.TransactionType;
+import org.example.id.TimeOrderedIdGenerator;
+import org.example.id.TransactionId;
+import org.example.id.TransactionIdGenerator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.time.temporal.ChronoUnit;
 
 @Setter
 @Getter
 public class Transaction {
+    /**
+     * Источник идентификаторов новых транзакций
+     */
+    private static volatile TransactionIdGenerator idGenerator = new TimeOrderedIdGenerator();
+
     /**
      * Идентификатор транзакции
      */
-    private final String id;
+    private final TransactionId transactionId;
     /**
      * Сумма денег в транзакции
      */
@@ -29,7 +37,7 @@ public class Transaction {
      */
     private final CategoryType category;
     /**
-     * Дата и время транзакции
+     * Дата и время транзакции с точностью до микросекунды
      */
     private final LocalDateTime date;
     /**
@@ -49,15 +57,86 @@ public class Transaction {
      * @param targetAccount счет на который делается транзакция
      */
     public Transaction(BigDecimal amount, TransactionType type, CategoryType category, BankAccount sourceAccount, BankAccount targetAccount) {
-        this.id = UUID.randomUUID().toString();
+        this.transactionId = idGenerator.next();
+        this.amount = amount;
+        this.type = type;
+        this.category = category;
+        this.date = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        this.sourceAccount = sourceAccount;
+        this.targetAccount = targetAccount;
+    }
+
+    /**
+     * Конструктор для восстановления уже проведенной транзакции из хранилища истории
+     * @param id идентификатор транзакции
+     * @param amount сумма денег в транзакции
+     * @param type тип транзакции
+     * @param category тип категории
+     * @param date дата и время транзакции
+     * @param sourceAccount счет с которого проводится транзакция
+     * @param targetAccount счет на который делается транзакция
+     */
+    public Transaction(String id, BigDecimal amount, TransactionType type, CategoryType category, LocalDateTime date,
+                       BankAccount sourceAccount, BankAccount targetAccount) {
+        this(TransactionId.parse(id), amount, type, category, date, sourceAccount, targetAccount);
+    }
+
+    /**
+     * Конструктор для восстановления уже проведенной транзакции из хранилища истории
+     * @param transactionId идентификатор транзакции
+     * @param amount сумма денег в транзакции
+     * @param type тип транзакции
+     * @param category тип категории
+     * @param date дата и время транзакции
+     * @param sourceAccount счет с которого проводится транзакция
+     * @param targetAccount счет на который делается транзакция
+     */
+    public Transaction(TransactionId transactionId, BigDecimal amount, TransactionType type, CategoryType category,
+                       LocalDateTime date, BankAccount sourceAccount, BankAccount targetAccount) {
+        this.transactionId = transactionId;
         this.amount = amount;
         this.type = type;
         this.category = category;
-        this.date = LocalDateTime.now();
+        this.date = date;
         this.sourceAccount = sourceAccount;
         this.targetAccount = targetAccount;
     }
 
+    /**
+     * Метод заменяет источник идентификаторов новых транзакций
+     * @param generator генератор идентификаторов
+     */
+    public static void setIdGenerator(TransactionIdGenerator generator) {
+        idGenerator = generator;
+    }
+
+    /**
+     * Метод возвращает строковое представление идентификатора, которое собирается при первом обращении
+     * @return идентификатор в формате UUID
+     */
+    public String getId() {
+        return transactionId.toString();
+    }
+
+    /**
+     * Транзакции равны, если совпадают их идентификаторы.
+     * Хранилище истории собирает объект заново при каждом чтении, поэтому сравнивать по ссылке нельзя.
+     * @param o объект для сравнения
+     * @return {@code true}, если это та же транзакция
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Transaction other && transactionId.equals(other.transactionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return transactionId.hashCode();
+    }
+
     /**
      * Переопределенный метод toString() для вывода информации о транзакции
      * @return информация о транзакции
@@ -65,7 +144,7 @@ public class Transaction {
     @Override
     public String toString() {
         return String.format("%s || %s || %s || %s || %s || %s",
-                id, amount, type, date,
+                transactionId, amount, type, date,
                 sourceAccount != null ? sourceAccount.getAccountNumber() : "null",
                 targetAccount != null ? targetAccount.getAccountNumber() : "null");
     }
@@ -1,9 +1,11 @@
 package org.example.entity;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Setter
@@ -18,9 +20,11 @@ public class User {
      */
     private final String name;
     /**
-     * Список счетов, закрепленных за пользователем
+     * Неизменяемый список счетов, закрепленных за пользователем.
+     * При добавлении счета список заменяется новым, поэтому читатели получают его без копирования.
      */
-    private final List<BankAccount> accounts;
+    @Setter(AccessLevel.NONE)
+    private volatile List<BankAccount> accounts;
 
     /**
      * Конструктор класса User
@@ -30,22 +34,25 @@ public class User {
     public User(String id, String name) {
         this.id = id;
         this.name = name;
-        this.accounts = new ArrayList<>();
+        this.accounts = List.of();
     }
 
     /**
      * Метод добавляет новый счет для пользователя
      * @param account экземляр счета
      */
-    public void addAccount(BankAccount account) {
-        accounts.add(account);
+    public synchronized void addAccount(BankAccount account) {
+        List<BankAccount> updated = new ArrayList<>(accounts.size() + 1);
+        updated.addAll(accounts);
+        updated.add(account);
+        accounts = Collections.unmodifiableList(updated);
     }
 
     /**
      * Метод возвращает список счетов, закрепленных за пользователем
-     * @return список счетов пользователя
+     * @return неизменяемый снимок списка счетов пользователя
      */
     public List<BankAccount> getAccounts() {
-        return List.copyOf(accounts);
+        return accounts;
     }
 }
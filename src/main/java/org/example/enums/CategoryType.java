@@ -1,10 +1,33 @@
 package org.example.enums;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum CategoryType {
     TAXI,
     RESTAURANT,
     TECHNICAL,
     AMUSEMENT,
     HEALTH,
-    OTHER
+    OTHER;
+
+    /**
+     * Категории по названию, собранные один раз при загрузке класса
+     */
+    private static final Map<String, CategoryType> BY_NAME = new HashMap<>();
+
+    static {
+        for (CategoryType categoryType : values()) {
+            BY_NAME.put(categoryType.name(), categoryType);
+        }
+    }
+
+    /**
+     * Метод ищет категорию по названию без перебора значений и без исключений
+     * @param name название категории
+     * @return категория или {@code null}, если такой категории нет
+     */
+    public static CategoryType fromName(String name) {
+        return name != null ? BY_NAME.get(name) : null;
+    }
 }
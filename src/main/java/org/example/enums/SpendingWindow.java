@@ -0,0 +1,43 @@
+package org.example.enums;
+
+import java.time.LocalDate;
+
+/**
+ * Окна, за которые считаются траты. Каждое окно заканчивается текущим днем включительно.
+ */
+public enum SpendingWindow {
+    LAST_7_DAYS {
+        @Override
+        public LocalDate start(LocalDate today) {
+            return today.minusDays(6);
+        }
+    },
+    LAST_30_DAYS {
+        @Override
+        public LocalDate start(LocalDate today) {
+            return today.minusDays(29);
+        }
+    },
+    CURRENT_MONTH {
+        @Override
+        public LocalDate start(LocalDate today) {
+            return today.withDayOfMonth(1);
+        }
+    },
+    /**
+     * Последний месяц: от того же числа прошлого месяца до текущего дня
+     */
+    LAST_MONTH {
+        @Override
+        public LocalDate start(LocalDate today) {
+            return today.minusMonths(1);
+        }
+    };
+
+    /**
+     * Метод возвращает первый день окна
+     * @param today текущий день
+     * @return первый день окна (включительно)
+     */
+    public abstract LocalDate start(LocalDate today);
+}
@@ -0,0 +1,27 @@
+package org.example.events;
+
+import lombok.Getter;
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+
+/**
+ * Событие счета в ячейке кольцевого буфера.
+ * Ячейки создаются один раз и переиспользуются, поэтому событие действительно только внутри вызова
+ * {@link AccountEventHandler#onEvent}; чтобы сохранить его дольше, нужно сохранить счет и транзакцию.
+ */
+@Getter
+public final class AccountEvent {
+    /**
+     * Счет, на котором произошло событие
+     */
+    private BankAccount account;
+    /**
+     * Транзакция, попавшая в историю счета
+     */
+    private Transaction transaction;
+
+    void set(BankAccount account, Transaction transaction) {
+        this.account = account;
+        this.transaction = transaction;
+    }
+}
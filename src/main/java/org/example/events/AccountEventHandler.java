@@ -0,0 +1,18 @@
+package org.example.events;
+
+public interface AccountEventHandler {
+
+    /**
+     * Метод вызывается потоком подписчика для каждого события по порядку номеров.
+     * События приходят пачками: все опубликованные к моменту чтения события обрабатываются подряд,
+     * и на последнем из них endOfBatch равен {@code true} — это удобная точка для сброса накопленной работы.
+     * <p>
+     * Издатель ждет отставших подписчиков уже после снятия блокировки счета, поэтому обработчик может брать
+     * блокировки счетов. Но он не должен вызывать операции подключенных к этому же потоку счетов: такая операция
+     * сама публикует событие и при заполненном буфере будет ждать самого обработчика.
+     * @param event событие; действительно только до возврата из метода
+     * @param sequence номер события в потоке
+     * @param endOfBatch {@code true}, если это последнее событие пачки
+     */
+    void onEvent(AccountEvent event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,301 @@
+package org.example.events;
+
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.listeners.TransactionListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Поток событий счетов для подписчиков в стиле Disruptor.
+ * События лежат в кольцевом буфере заранее созданных ячеек. Издатель занимает номера одним атомарным сложением,
+ * заполняет свои ячейки без блокировок и отмечает каждую номером круга буфера, так что в каждую ячейку в каждый
+ * момент пишет ровно один поток. У каждого подписчика свой поток и свой курсор — номер последнего обработанного
+ * события; подписчик забирает все опубликованные события пачкой и сдвигает курсор один раз.
+ * Номера занимаются под блокировкой счета, поэтому события одного счета идут в порядке его изменений, а заполнение
+ * ячеек идет уже после снятия блокировки. Издатель не перезаписывает ячейку, пока ее не прочитали все подписчики:
+ * если самый медленный отстал на весь буфер, издатель ждет — так работает обратное давление, — но ждет без
+ * блокировки счета, и другие операции с этим счетом не стоят за медленным подписчиком.
+ */
+public class AccountEventStream implements TransactionListener, AutoCloseable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long PARK_NANOS = 20_000;
+
+    private final AccountEvent[] events;
+    /**
+     * Номер круга буфера, на котором ячейка была опубликована последний раз
+     */
+    private final AtomicIntegerArray published;
+    private final int mask;
+    private final int indexShift;
+    /**
+     * Номер последнего занятого события
+     */
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final ReentrantLock subscriptionLock = new ReentrantLock();
+    private volatile Subscription[] subscriptions = new Subscription[0];
+
+    public AccountEventStream() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Конструктор класса AccountEventStream
+     * @param bufferSize размер кольцевого буфера, степень двойки
+     */
+    public AccountEventStream(int bufferSize) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Размер буфера должен быть степенью двойки: " + bufferSize);
+        }
+        this.events = new AccountEvent[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            events[i] = new AccountEvent();
+        }
+        this.published = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            published.set(i, -1);
+        }
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+    }
+
+    /**
+     * Метод подключает счет к потоку: его пополнения, снятия, платежи и добавленные транзакции станут событиями
+     * @param account счет
+     */
+    public void attach(BankAccount account) {
+        account.addListener(this);
+    }
+
+    /**
+     * Метод отключает счет от потока
+     * @param account счет
+     */
+    public void detach(BankAccount account) {
+        account.removeListener(this);
+    }
+
+    /**
+     * Метод занимает номера для транзакций счета; вызывается счетом под его блокировкой и не ждет.
+     * Возвращает публикацию, которую счет выполняет после снятия блокировки.
+     */
+    @Override
+    public Runnable onTransactions(BankAccount account, List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return null;
+        }
+        long first = claimed.getAndAdd(transactions.size()) + 1;
+        return () -> {
+            for (int from = 0; from < transactions.size(); from += events.length) {
+                publish(account, transactions, first, from, Math.min(transactions.size(), from + events.length));
+            }
+        };
+    }
+
+    /**
+     * Метод подписывает обработчик на события, опубликованные после подписки.
+     * Обработчик вызывается в отдельном потоке подписчика.
+     * @param name имя подписчика для имени потока
+     * @param handler обработчик событий
+     * @return подписка; закрытие подписки останавливает ее поток
+     */
+    public Subscription subscribe(String name, AccountEventHandler handler) {
+        Subscription subscription = new Subscription(handler);
+        subscriptionLock.lock();
+        try {
+            Subscription[] updated = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+            updated[subscriptions.length] = subscription;
+            subscriptions = updated;
+            // курсор читается после публикации подписки: издатель, занявший номер позже,
+            // уже видит подписчика и не перезапишет непрочитанные им ячейки
+            subscription.cursor.set(claimed.get());
+        } finally {
+            subscriptionLock.unlock();
+        }
+        subscription.thread = Thread.ofPlatform().daemon().name("account-events-" + name)
+                .start(subscription::run);
+        return subscription;
+    }
+
+    /**
+     * Метод возвращает номер последнего занятого события
+     * @return номер события или -1, если событий не было
+     */
+    public long sequence() {
+        return claimed.get();
+    }
+
+    /**
+     * Метод закрывает все подписки
+     */
+    @Override
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * Метод заполняет ячейки транзакций [from, to) из номеров, занятых начиная с first.
+     * Отрезок не длиннее буфера, поэтому его ячейки освобождаются подписчиками, не дожидаясь следующих отрезков.
+     */
+    private void publish(BankAccount account, List<Transaction> transactions, long first, int from, int to) {
+        awaitCapacity(first + to - 1);
+        for (int i = from; i < to; i++) {
+            long sequence = first + i;
+            int index = (int) (sequence & mask);
+            events[index].set(account, transactions.get(i));
+            published.set(index, (int) (sequence >>> indexShift));
+        }
+    }
+
+    /**
+     * Метод ждет, пока все подписчики прочитают события, ячейки которых нужны для номеров до last
+     */
+    private void awaitCapacity(long last) {
+        long wrapPoint = last - events.length;
+        for (int attempt = 0; wrapPoint > minCursor(wrapPoint); attempt++) {
+            idle(attempt);
+        }
+    }
+
+    private long minCursor(long fallback) {
+        long min = fallback;
+        Subscription[] current = subscriptions;
+        if (current.length == 0) {
+            return min;
+        }
+        min = Long.MAX_VALUE;
+        for (Subscription subscription : current) {
+            min = Math.min(min, subscription.cursor.get());
+        }
+        return min;
+    }
+
+    /**
+     * Метод возвращает номер последнего события, до которого все события начиная с from опубликованы
+     */
+    private long highestPublished(long from, long upTo) {
+        for (long sequence = from; sequence <= upTo; sequence++) {
+            if (published.get((int) (sequence & mask)) != (int) (sequence >>> indexShift)) {
+                return sequence - 1;
+            }
+        }
+        return upTo;
+    }
+
+    private void removeSubscription(Subscription subscription) {
+        subscriptionLock.lock();
+        try {
+            subscriptions = Arrays.stream(subscriptions)
+                    .filter(current -> current != subscription)
+                    .toArray(Subscription[]::new);
+        } finally {
+            subscriptionLock.unlock();
+        }
+    }
+
+    /**
+     * Метод ожидания: сначала активное ожидание ради задержки в микросекунды, затем уступка процессора
+     * и короткий сон, чтобы простаивающий подписчик не занимал ядро
+     */
+    private static void idle(int attempt) {
+        if (attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (attempt < YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * Подписка на поток событий со своим курсором и потоком обработки
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final AccountEventHandler handler;
+        private final AtomicLong cursor = new AtomicLong(-1);
+        private final AtomicLong failures = new AtomicLong();
+        private volatile boolean running = true;
+        private Thread thread;
+
+        private Subscription(AccountEventHandler handler) {
+            this.handler = handler;
+        }
+
+        /**
+         * Метод возвращает номер последнего обработанного события
+         * @return номер события
+         */
+        public long sequence() {
+            return cursor.get();
+        }
+
+        /**
+         * Метод возвращает кол-во событий, на которых обработчик бросил исключение или ошибку; такие события пропускаются
+         * @return кол-во ошибок обработчика
+         */
+        public long failures() {
+            return failures.get();
+        }
+
+        /**
+         * Метод останавливает подписку после обработки уже опубликованных событий пачки
+         * и перестает задерживать издателей
+         */
+        @Override
+        public void close() {
+            running = false;
+            Thread current = thread;
+            if (current != null && current != Thread.currentThread()) {
+                LockSupport.unpark(current);
+                try {
+                    current.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            removeSubscription(this);
+        }
+
+        /**
+         * Цикл потока подписчика. Ошибка обработчика любого рода пропускает событие, а не останавливает поток;
+         * если поток все же завершается, подписка снимается, чтобы не задерживать издателей навсегда.
+         */
+        private void run() {
+            try {
+                int attempt = 0;
+                while (running) {
+                    long next = cursor.get() + 1;
+                    long available = highestPublished(next, claimed.get());
+                    if (available < next) {
+                        idle(attempt++);
+                        continue;
+                    }
+                    attempt = 0;
+                    for (long sequence = next; sequence <= available; sequence++) {
+                        try {
+                            handler.onEvent(events[(int) (sequence & mask)], sequence, sequence == available);
+                        } catch (Throwable e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    cursor.set(available);
+                }
+            } finally {
+                running = false;
+                removeSubscription(this);
+            }
+        }
+    }
+}
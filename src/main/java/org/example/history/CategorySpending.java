@@ -0,0 +1,176 @@
+package org.example.history;
+
+import org.example.entity.Transaction;
+import org.example.enums.CategoryType;
+import org.example.enums.TransactionType;
+import org.example.money.Money;
+import org.example.money.MoneySum;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Set;
+
+/**
+ * Суммы платежей по категориям за последние дни.
+ * Дни каждой категории лежат в кольцевом буфере из {@link #DAYS} ячеек: ячейка дня выбирается по номеру дня
+ * от эпохи, и когда в нее приходит более поздний день, прежняя сумма ячейки сбрасывается. Поэтому буфер сам
+ * сдвигается вместе с датами платежей, а запрос за окно складывает не больше DAYS ячеек независимо от длины истории.
+ * Буфер категории создается при первом платеже по ней, так что счет без платежей почти не занимает памяти.
+ */
+public class CategorySpending {
+
+    /**
+     * Кол-во дней в буфере: хватает на календарный месяц и на месяц назад от текущей даты
+     */
+    public static final int DAYS = 64;
+
+    private static final CategoryType[] CATEGORIES = CategoryType.values();
+    private static final long EMPTY_DAY = Long.MIN_VALUE;
+
+    /**
+     * Буферы дней по номеру категории; {@code null}, пока по категории не было платежей
+     */
+    private final DayRing[] rings = new DayRing[CATEGORIES.length];
+
+    /**
+     * Метод учитывает транзакцию в агрегатах, если она является платежом.
+     * Платежи старше буфера не учитываются: они не попадут ни в одно окно запроса.
+     * @param transaction транзакция
+     */
+    public synchronized void add(Transaction transaction) {
+        if (!TransactionType.PAYMENT.equals(transaction.getType()) || transaction.getCategory() == null) {
+            return;
+        }
+
+        int category = transaction.getCategory().ordinal();
+        DayRing ring = rings[category];
+        if (ring == null) {
+            ring = new DayRing();
+            rings[category] = ring;
+        }
+        ring.add(transaction.getDate().toLocalDate().toEpochDay(), transaction.getAmount());
+    }
+
+    /**
+     * Метод возвращает сумму платежей по категории начиная с указанного дня
+     * @param category категория платежа
+     * @param from первый день окна (включительно)
+     * @return сумма платежей или {@code null}, если платежей в окне не было
+     */
+    public synchronized BigDecimal getSpending(CategoryType category, LocalDate from) {
+        return getSpending(category, from, LocalDate.MAX);
+    }
+
+    /**
+     * Метод возвращает сумму платежей по категории за период
+     * @param category категория платежа
+     * @param from первый день окна (включительно)
+     * @param to последний день окна (включительно)
+     * @return сумма платежей или {@code null}, если платежей в окне не было
+     */
+    public synchronized BigDecimal getSpending(CategoryType category, LocalDate from, LocalDate to) {
+        DayRing ring = rings[category.ordinal()];
+        if (ring == null) {
+            return null;
+        }
+        MoneySum sum = new MoneySum();
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        for (int slot = 0; slot < DAYS; slot++) {
+            if (ring.contains(slot, fromDay, toDay)) {
+                sum.add(ring.units[slot], ring.scales[slot]);
+            }
+        }
+        return sum.isEmpty() ? null : sum.toBigDecimal();
+    }
+
+    /**
+     * Метод прибавляет платежи по категориям за период к суммам по категориям
+     * @param categories категории платежей
+     * @param from первый день окна (включительно)
+     * @param to последний день окна (включительно)
+     * @param target суммы по категориям
+     */
+    public synchronized void collectSpending(Set<CategoryType> categories, LocalDate from, LocalDate to,
+                                             CategoryTotals target) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        for (CategoryType category : categories) {
+            DayRing ring = rings[category.ordinal()];
+            if (ring == null) {
+                continue;
+            }
+            for (int slot = 0; slot < DAYS; slot++) {
+                if (ring.contains(slot, fromDay, toDay)) {
+                    target.add(category.ordinal(), ring.units[slot], ring.scales[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Метод возвращает суммы платежей по нескольким категориям начиная с указанного дня
+     * @param categories категории платежей
+     * @param from первый день окна (включительно)
+     * @return EnumMap категорий, по которым были платежи в окне
+     */
+    public synchronized EnumMap<CategoryType, BigDecimal> getSpending(Set<CategoryType> categories, LocalDate from) {
+        CategoryTotals totals = new CategoryTotals();
+        collectSpending(categories, from, LocalDate.MAX, totals);
+        return totals.toEnumMap();
+    }
+
+    private static int slot(long day) {
+        return (int) Math.floorMod(day, (long) DAYS);
+    }
+
+    /**
+     * Кольцевой буфер сумм одной категории по дням
+     */
+    private static final class DayRing {
+        /**
+         * Номер дня от эпохи, который лежит в ячейке
+         */
+        private final long[] days = new long[DAYS];
+        /**
+         * Суммы платежей в копейках
+         */
+        private final long[] units = new long[DAYS];
+        /**
+         * Масштаб сумм при переводе в BigDecimal
+         */
+        private final byte[] scales = new byte[DAYS];
+        /**
+         * Кол-во платежей в ячейке
+         */
+        private final int[] counts = new int[DAYS];
+
+        private DayRing() {
+            Arrays.fill(days, EMPTY_DAY);
+        }
+
+        private void add(long day, BigDecimal amount) {
+            int slot = slot(day);
+            if (days[slot] > day) {
+                return;
+            }
+            boolean fresh = days[slot] < day;
+            long total = Math.addExact(fresh ? 0 : units[slot], Money.toMinorUnits(amount));
+            if (fresh) {
+                scales[slot] = 0;
+                counts[slot] = 0;
+                days[slot] = day;
+            }
+            units[slot] = total;
+            scales[slot] = (byte) Math.max(scales[slot], Money.displayScale(amount));
+            counts[slot]++;
+        }
+
+        private boolean contains(int slot, long fromDay, long toDay) {
+            long day = days[slot];
+            return day != EMPTY_DAY && day >= fromDay && day <= toDay && counts[slot] > 0;
+        }
+    }
+}
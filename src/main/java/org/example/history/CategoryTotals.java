@@ -0,0 +1,68 @@
+package org.example.history;
+
+import org.example.enums.CategoryType;
+import org.example.money.Money;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+
+/**
+ * Изменяемые суммы по категориям в копейках, в массивах по порядковому номеру категории.
+ * Накопитель не потокобезопасен: его защищает блокировка владельца или он принадлежит одной задаче.
+ */
+public final class CategoryTotals {
+
+    private static final CategoryType[] CATEGORIES = CategoryType.values();
+
+    private final long[] units = new long[CATEGORIES.length];
+    private final byte[] scales = new byte[CATEGORIES.length];
+    private final boolean[] present = new boolean[CATEGORIES.length];
+
+    /**
+     * Метод прибавляет сумму к категории
+     * @param ordinal порядковый номер категории
+     * @param minorUnits сумма в минимальных единицах
+     * @param scale масштаб суммы при переводе в BigDecimal
+     */
+    void add(int ordinal, long minorUnits, int scale) {
+        units[ordinal] = Math.addExact(units[ordinal], minorUnits);
+        scales[ordinal] = (byte) Math.max(scales[ordinal], scale);
+        present[ordinal] = true;
+    }
+
+    /**
+     * Метод прибавляет суммы другого накопителя
+     * @param other накопитель
+     */
+    public void addAll(CategoryTotals other) {
+        for (int ordinal = 0; ordinal < CATEGORIES.length; ordinal++) {
+            if (other.present[ordinal]) {
+                add(ordinal, other.units[ordinal], other.scales[ordinal]);
+            }
+        }
+    }
+
+    /**
+     * Метод возвращает сумму по категории
+     * @param category категория
+     * @return сумма или {@code null}, если по категории ничего не прибавлялось
+     */
+    public BigDecimal get(CategoryType category) {
+        int ordinal = category.ordinal();
+        return present[ordinal] ? Money.toBigDecimal(units[ordinal], scales[ordinal]) : null;
+    }
+
+    /**
+     * Метод переводит суммы в EnumMap на границе API
+     * @return EnumMap категорий, по которым прибавлялись суммы
+     */
+    public EnumMap<CategoryType, BigDecimal> toEnumMap() {
+        EnumMap<CategoryType, BigDecimal> result = new EnumMap<>(CategoryType.class);
+        for (int ordinal = 0; ordinal < CATEGORIES.length; ordinal++) {
+            if (present[ordinal]) {
+                result.put(CATEGORIES[ordinal], Money.toBigDecimal(units[ordinal], scales[ordinal]));
+            }
+        }
+        return result;
+    }
+}
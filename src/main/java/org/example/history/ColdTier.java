@@ -0,0 +1,208 @@
+package org.example.history;
+
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.enums.CategoryType;
+import org.example.enums.TransactionType;
+import org.example.id.TransactionId;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Холодный уровень истории: старые транзакции вне кучи, в direct-буферах с записями фиксированной длины.
+ * Экземпляр неизменяем снаружи: перенос новых записей возвращает новый экземпляр, который делит с прежним
+ * уже заполненные буферы, поэтому выданные ранее снимки истории остаются корректными.
+ * Каждый буфер отвечает за {@link #RECORDS_PER_CHUNK} записей, но последний выделяется по мере надобности:
+ * начиная с {@link #FIRST_CHUNK_RECORDS} записей и удваиваясь, пока не станет полным.
+ */
+final class ColdTier {
+
+    static final ColdTier EMPTY = new ColdTier(new ByteBuffer[0], 0);
+
+    /**
+     * id (16) + сумма (8) + масштаб (1) + дата (8) + тип (1) + категория (1) + счета (4 + 4)
+     */
+    static final int RECORD_SIZE = 43;
+    static final int RECORDS_PER_CHUNK = 65_536;
+    static final int FIRST_CHUNK_RECORDS = 1_024;
+
+    private static final int ID_HIGH = 0;
+    private static final int ID_LOW = 8;
+    private static final int AMOUNT = 16;
+    private static final int SCALE = 24;
+    private static final int TIMESTAMP = 25;
+    private static final int TYPE = 33;
+    private static final int CATEGORY = 34;
+    private static final int SOURCE = 35;
+    private static final int TARGET = 39;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final CategoryType[] CATEGORIES = CategoryType.values();
+
+    private final ByteBuffer[] chunks;
+    private final int size;
+
+    private ColdTier(ByteBuffer[] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Метод переносит строки горячего уровня в холодный
+     * @param hot колонки горячего уровня
+     * @param from первая переносимая строка
+     * @param count кол-во строк
+     * @return холодный уровень с добавленными строками
+     */
+    ColdTier append(TransactionColumns hot, int from, int count) {
+        int total = size + count;
+        int chunkCount = (total + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK;
+        ByteBuffer[] grown = chunks;
+        for (int i = Math.max(0, chunks.length - 1); i < chunkCount; i++) {
+            int required = Math.min(RECORDS_PER_CHUNK, total - i * RECORDS_PER_CHUNK);
+            ByteBuffer current = i < chunks.length ? chunks[i] : null;
+            int capacity = current != null ? current.capacity() / RECORD_SIZE : 0;
+            if (required > capacity) {
+                if (grown == chunks) {
+                    grown = Arrays.copyOf(chunks, chunkCount);
+                }
+                grown[i] = grow(current, Math.min(size - i * RECORDS_PER_CHUNK, capacity), capacity, required);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            int row = from + i;
+            int index = size + i;
+            ByteBuffer chunk = grown[index / RECORDS_PER_CHUNK];
+            int offset = (index % RECORDS_PER_CHUNK) * RECORD_SIZE;
+            chunk.putLong(offset + ID_HIGH, hot.idHigh[row]);
+            chunk.putLong(offset + ID_LOW, hot.idLow[row]);
+            chunk.putLong(offset + AMOUNT, hot.amounts[row]);
+            chunk.put(offset + SCALE, hot.scales[row]);
+            chunk.putLong(offset + TIMESTAMP, hot.timestamps[row]);
+            chunk.put(offset + TYPE, hot.types[row]);
+            chunk.put(offset + CATEGORY, hot.categories[row]);
+            chunk.putInt(offset + SOURCE, hot.sources[row]);
+            chunk.putInt(offset + TARGET, hot.targets[row]);
+        }
+        return new ColdTier(grown, total);
+    }
+
+    /**
+     * Метод возвращает холодный уровень из первых строк текущего.
+     * Неполный последний буфер копируется в буфер по размеру оставленных строк, чтобы следующие переносы
+     * не перезаписали строки выданных снимков.
+     * @param newSize кол-во оставляемых строк
+     * @return укороченный холодный уровень
+     */
+    ColdTier truncate(int newSize) {
+        if (newSize == size) {
+            return this;
+        }
+        int chunkCount = (newSize + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK;
+        ByteBuffer[] kept = Arrays.copyOf(chunks, chunkCount);
+        int tail = newSize % RECORDS_PER_CHUNK;
+        if (tail != 0) {
+            ByteBuffer last = ByteBuffer.allocateDirect(tail * RECORD_SIZE);
+            last.put(0, kept[chunkCount - 1], 0, tail * RECORD_SIZE);
+            kept[chunkCount - 1] = last;
+        }
+        return new ColdTier(kept, newSize);
+    }
+
+    /**
+     * Метод копирует строки холодного уровня обратно в колонки, например для вставки запоздавшей транзакции
+     * @param from первая строка
+     * @param target колонки, в которые идет копирование
+     * @param targetIndex первая строка в колонках
+     * @param count кол-во строк
+     */
+    void copyTo(int from, TransactionColumns target, int targetIndex, int count) {
+        for (int i = 0; i < count; i++) {
+            int index = from + i;
+            int row = targetIndex + i;
+            ByteBuffer chunk = chunk(index);
+            int offset = offset(index);
+            target.idHigh[row] = chunk.getLong(offset + ID_HIGH);
+            target.idLow[row] = chunk.getLong(offset + ID_LOW);
+            target.amounts[row] = chunk.getLong(offset + AMOUNT);
+            target.scales[row] = chunk.get(offset + SCALE);
+            target.timestamps[row] = chunk.getLong(offset + TIMESTAMP);
+            target.types[row] = chunk.get(offset + TYPE);
+            target.categories[row] = chunk.get(offset + CATEGORY);
+            target.sources[row] = chunk.getInt(offset + SOURCE);
+            target.targets[row] = chunk.getInt(offset + TARGET);
+        }
+    }
+
+    Transaction read(int index, BankAccount[] accounts) {
+        ByteBuffer chunk = chunk(index);
+        int offset = offset(index);
+        int source = chunk.getInt(offset + SOURCE);
+        int target = chunk.getInt(offset + TARGET);
+        return new Transaction(
+                new TransactionId(chunk.getLong(offset + ID_HIGH), chunk.getLong(offset + ID_LOW)),
+                amountAt(index),
+                typeAt(index),
+                categoryAt(index),
+                TransactionColumns.fromEpochMicros(timestampAt(index)),
+                source != TransactionColumns.NO_ACCOUNT ? accounts[source] : null,
+                target != TransactionColumns.NO_ACCOUNT ? accounts[target] : null);
+    }
+
+    TransactionId idAt(int index) {
+        ByteBuffer chunk = chunk(index);
+        int offset = offset(index);
+        return new TransactionId(chunk.getLong(offset + ID_HIGH), chunk.getLong(offset + ID_LOW));
+    }
+
+    long timestampAt(int index) {
+        return chunk(index).getLong(offset(index) + TIMESTAMP);
+    }
+
+    TransactionType typeAt(int index) {
+        return TYPES[chunk(index).get(offset(index) + TYPE)];
+    }
+
+    CategoryType categoryAt(int index) {
+        byte category = chunk(index).get(offset(index) + CATEGORY);
+        return category != TransactionColumns.NO_CATEGORY ? CATEGORIES[category] : null;
+    }
+
+    BigDecimal amountAt(int index) {
+        ByteBuffer chunk = chunk(index);
+        int offset = offset(index);
+        return BigDecimal.valueOf(chunk.getLong(offset + AMOUNT), chunk.get(offset + SCALE));
+    }
+
+    /**
+     * Метод выделяет буфер не меньше чем на required записей, удваивая прежнюю емкость, и копирует в него
+     * занятые записи прежнего буфера
+     * @param current прежний буфер или {@code null}
+     * @param used кол-во занятых записей в прежнем буфере
+     * @param capacity емкость прежнего буфера в записях
+     * @param required требуемое кол-во записей
+     */
+    private static ByteBuffer grow(ByteBuffer current, int used, int capacity, int required) {
+        int records = Math.min(RECORDS_PER_CHUNK, Math.max(required, Math.max(FIRST_CHUNK_RECORDS, capacity * 2)));
+        ByteBuffer grown = ByteBuffer.allocateDirect(records * RECORD_SIZE);
+        if (current != null && used > 0) {
+            grown.put(0, current, 0, used * RECORD_SIZE);
+        }
+        return grown;
+    }
+
+    private ByteBuffer chunk(int index) {
+        return chunks[index / RECORDS_PER_CHUNK];
+    }
+
+    private static int offset(int index) {
+        return (index % RECORDS_PER_CHUNK) * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.history;
+
+import org.example.entity.Transaction;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator по снимкам историй нескольких счетов, идущим друг за другом.
+ * Транзакции читаются прямо из колонок снимков по одной, поэтому обход не копирует историю,
+ * может прерваться в любой момент и делится пополам для параллельной обработки.
+ */
+public final class HistorySpliterator implements Spliterator<Transaction> {
+
+    private final HistoryView[] views;
+    /**
+     * Сквозная позиция первой транзакции каждого снимка; последний элемент равен общему кол-ву транзакций
+     */
+    private final long[] starts;
+    private long position;
+    private final long end;
+    private int view;
+
+    /**
+     * Конструктор класса HistorySpliterator
+     * @param views снимки историй в порядке обхода
+     */
+    public HistorySpliterator(List<HistoryView> views) {
+        this.views = views.toArray(new HistoryView[0]);
+        this.starts = new long[this.views.length + 1];
+        for (int i = 0; i < this.views.length; i++) {
+            starts[i + 1] = starts[i] + this.views[i].size();
+        }
+        this.position = 0;
+        this.end = starts[this.views.length];
+    }
+
+    private HistorySpliterator(HistoryView[] views, long[] starts, long position, long end) {
+        this.views = views;
+        this.starts = starts;
+        this.position = position;
+        this.end = end;
+        this.view = viewOf(position);
+    }
+
+    /**
+     * Метод возвращает сквозную позицию следующей транзакции
+     * @return позиция от начала первого снимка
+     */
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Transaction> action) {
+        if (position >= end) {
+            return false;
+        }
+        while (position >= starts[view + 1]) {
+            view++;
+        }
+        action.accept(views[view].get((int) (position - starts[view])));
+        position++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Transaction> action) {
+        while (position < end) {
+            while (position >= starts[view + 1]) {
+                view++;
+            }
+            HistoryView current = views[view];
+            int to = (int) (Math.min(end, starts[view + 1]) - starts[view]);
+            for (int i = (int) (position - starts[view]); i < to; i++) {
+                action.accept(current.get(i));
+            }
+            position = starts[view] + to;
+        }
+    }
+
+    @Override
+    public Spliterator<Transaction> trySplit() {
+        long remaining = end - position;
+        if (remaining < 2) {
+            return null;
+        }
+        long middle = position + remaining / 2;
+        HistorySpliterator prefix = new HistorySpliterator(views, starts, position, middle);
+        position = middle;
+        view = viewOf(middle);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - position;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+    }
+
+    /**
+     * Метод ищет снимок, в котором лежит транзакция со сквозной позицией
+     */
+    private int viewOf(long target) {
+        int low = 0;
+        int high = views.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (starts[middle] <= target) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return Math.max(low, 0);
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.history;
+
+import org.example.entity.Transaction;
+
+import java.math.BigDecimal;
+
+/**
+ * Сводка по истории счета: какие типы и категории в ней встречаются и в каких пределах лежат суммы.
+ * По сводке запрос может пропустить счет целиком, не просматривая его транзакции.
+ * Сводка только расширяется, поэтому для любого снимка истории она описывает все его транзакции.
+ *
+ * @param typeMask биты порядковых номеров встречающихся типов транзакций
+ * @param categoryMask биты порядковых номеров встречающихся категорий
+ * @param minAmount наименьшая сумма или {@code null}, если транзакций нет
+ * @param maxAmount наибольшая сумма или {@code null}, если транзакций нет
+ */
+public record HistorySummary(int typeMask, int categoryMask, BigDecimal minAmount, BigDecimal maxAmount) {
+
+    static final HistorySummary EMPTY = new HistorySummary(0, 0, null, null);
+
+    /**
+     * Метод возвращает сводку, учитывающую еще одну транзакцию
+     * @param transaction транзакция
+     * @return эта же сводка, если транзакция ее не расширяет, иначе новая
+     */
+    HistorySummary with(Transaction transaction) {
+        int types = typeMask | 1 << transaction.getType().ordinal();
+        int categories = transaction.getCategory() != null
+                ? categoryMask | 1 << transaction.getCategory().ordinal()
+                : categoryMask;
+        BigDecimal amount = transaction.getAmount();
+        BigDecimal min = minAmount == null || amount.compareTo(minAmount) < 0 ? amount : minAmount;
+        BigDecimal max = maxAmount == null || amount.compareTo(maxAmount) > 0 ? amount : maxAmount;
+
+        if (types == typeMask && categories == categoryMask && min == minAmount && max == maxAmount) {
+            return this;
+        }
+        return new HistorySummary(types, categories, min, max);
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.history;
+
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.enums.CategoryType;
+import org.example.enums.TransactionType;
+import org.example.id.TransactionId;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Неизменяемое представление отрезка истории транзакций без копирования элементов.
+ * Отрезок может начинаться в холодном уровне вне кучи и продолжаться в горячих колонках.
+ * Транзакции собираются при обращении, а поля для фильтрации можно читать без сборки объекта.
+ */
+public class HistoryView extends AbstractList<Transaction> implements RandomAccess {
+
+    private final ColdTier cold;
+    private final TransactionColumns hot;
+    private final BankAccount[] accounts;
+    private final HistorySummary summary;
+    private final int from;
+    private final int to;
+    private final boolean reversed;
+
+    HistoryView(ColdTier cold, TransactionColumns hot, BankAccount[] accounts, HistorySummary summary,
+                int from, int to, boolean reversed) {
+        this.cold = cold;
+        this.hot = hot;
+        this.accounts = accounts;
+        this.summary = summary;
+        this.from = from;
+        this.to = to;
+        this.reversed = reversed;
+    }
+
+    /**
+     * Метод возвращает представление другого отрезка той же истории
+     */
+    HistoryView slice(int sliceFrom, int sliceTo, boolean sliceReversed) {
+        return new HistoryView(cold, hot, accounts, summary, sliceFrom, sliceTo, sliceReversed);
+    }
+
+    /**
+     * Метод возвращает сводку по истории, из которой взят снимок.
+     * Для отрезка истории сводка может быть шире его содержимого, но никогда не уже.
+     * @return сводка по типам, категориям и суммам
+     */
+    public HistorySummary summary() {
+        return summary;
+    }
+
+    ColdTier cold() {
+        return cold;
+    }
+
+    TransactionColumns hot() {
+        return hot;
+    }
+
+    BankAccount[] accounts() {
+        return accounts;
+    }
+
+    long timestampAtRow(int row) {
+        return row < cold.size() ? cold.timestampAt(row) : hot.timestamps[row - cold.size()];
+    }
+
+    @Override
+    public Transaction get(int index) {
+        int row = position(index);
+        return row < cold.size() ? cold.read(row, accounts) : hot.read(row - cold.size(), accounts);
+    }
+
+    /**
+     * Метод возвращает тип транзакции без сборки объекта
+     * @param index позиция в представлении
+     * @return тип транзакции
+     */
+    public TransactionType typeAt(int index) {
+        int row = position(index);
+        return row < cold.size() ? cold.typeAt(row) : hot.typeAt(row - cold.size());
+    }
+
+    /**
+     * Метод возвращает категорию транзакции без сборки объекта
+     * @param index позиция в представлении
+     * @return категория или {@code null}
+     */
+    public CategoryType categoryAt(int index) {
+        int row = position(index);
+        return row < cold.size() ? cold.categoryAt(row) : hot.categoryAt(row - cold.size());
+    }
+
+    /**
+     * Метод возвращает идентификатор транзакции без сборки объекта
+     * @param index позиция в представлении
+     * @return идентификатор транзакции
+     */
+    public TransactionId idAt(int index) {
+        int row = position(index);
+        return row < cold.size()
+                ? cold.idAt(row)
+                : new TransactionId(hot.idHigh[row - cold.size()], hot.idLow[row - cold.size()]);
+    }
+
+    /**
+     * Метод возвращает время транзакции в микросекундах от эпохи без сборки объекта
+     * @param index позиция в представлении
+     * @return время транзакции
+     */
+    public long epochMicrosAt(int index) {
+        return timestampAtRow(position(index));
+    }
+
+    /**
+     * Метод возвращает позицию первой транзакции не раньше указанного времени.
+     * Представление должно идти в хронологическом порядке.
+     * @param epochMicros время в микросекундах от эпохи
+     * @return позиция от 0 до размера представления
+     */
+    public int lowerBound(long epochMicros) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochMicrosAt(middle) < epochMicros) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Метод возвращает дату транзакции без сборки объекта
+     * @param index позиция в представлении
+     * @return дата транзакции
+     */
+    public LocalDateTime dateAt(int index) {
+        return TransactionColumns.fromEpochMicros(timestampAtRow(position(index)));
+    }
+
+    /**
+     * Метод возвращает сумму транзакции без сборки объекта
+     * @param index позиция в представлении
+     * @return сумма транзакции
+     */
+    public BigDecimal amountAt(int index) {
+        int row = position(index);
+        return row < cold.size() ? cold.amountAt(row) : hot.amountAt(row - cold.size());
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    private int position(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return reversed ? to - 1 - index : from + index;
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.history;
+
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.enums.CategoryType;
+import org.example.enums.TransactionType;
+import org.example.id.TransactionId;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Колоночное хранилище транзакций: каждое поле транзакции лежит в своем массиве примитивов.
+ * Объекты Transaction собираются только при чтении.
+ */
+final class TransactionColumns {
+
+    static final byte NO_CATEGORY = -1;
+    static final int NO_ACCOUNT = -1;
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final CategoryType[] CATEGORIES = CategoryType.values();
+
+    final long[] idHigh;
+    final long[] idLow;
+    final long[] amounts;
+    final byte[] scales;
+    final long[] timestamps;
+    final byte[] types;
+    final byte[] categories;
+    final int[] sources;
+    final int[] targets;
+
+    TransactionColumns(int capacity) {
+        this.idHigh = new long[capacity];
+        this.idLow = new long[capacity];
+        this.amounts = new long[capacity];
+        this.scales = new byte[capacity];
+        this.timestamps = new long[capacity];
+        this.types = new byte[capacity];
+        this.categories = new byte[capacity];
+        this.sources = new int[capacity];
+        this.targets = new int[capacity];
+    }
+
+    int capacity() {
+        return amounts.length;
+    }
+
+    /**
+     * Метод проверяет, что сумма помещается в строку хранилища: немасштабированное значение в long, масштаб в байт
+     * @param amount сумма
+     * @return {@code true}, если сумму можно записать
+     */
+    static boolean fits(BigDecimal amount) {
+        return amount.unscaledValue().bitLength() < Long.SIZE && amount.scale() == (byte) amount.scale();
+    }
+
+    /**
+     * Метод записывает транзакцию в строку хранилища
+     * @param index номер строки
+     * @param transaction транзакция
+     * @param sourceId номер счета-источника в таблице счетов истории
+     * @param targetId номер счета-получателя в таблице счетов истории
+     */
+    void write(int index, Transaction transaction, int sourceId, int targetId) {
+        TransactionId id = transaction.getTransactionId();
+        BigDecimal amount = transaction.getAmount();
+        long unscaled = amount.unscaledValue().longValueExact();
+        if (amount.scale() != (byte) amount.scale()) {
+            throw new ArithmeticException("Масштаб суммы не помещается в байт: " + amount);
+        }
+        idHigh[index] = id.high();
+        idLow[index] = id.low();
+        amounts[index] = unscaled;
+        scales[index] = (byte) amount.scale();
+        timestamps[index] = toEpochMicros(transaction.getDate());
+        types[index] = (byte) transaction.getType().ordinal();
+        categories[index] = transaction.getCategory() != null ? (byte) transaction.getCategory().ordinal() : NO_CATEGORY;
+        sources[index] = sourceId;
+        targets[index] = targetId;
+    }
+
+    /**
+     * Метод собирает транзакцию из строки хранилища
+     * @param index номер строки
+     * @param accounts таблица счетов истории
+     * @return транзакция
+     */
+    Transaction read(int index, BankAccount[] accounts) {
+        return new Transaction(
+                new TransactionId(idHigh[index], idLow[index]),
+                amountAt(index),
+                TYPES[types[index]],
+                categoryAt(index),
+                fromEpochMicros(timestamps[index]),
+                sources[index] != NO_ACCOUNT ? accounts[sources[index]] : null,
+                targets[index] != NO_ACCOUNT ? accounts[targets[index]] : null);
+    }
+
+    TransactionType typeAt(int index) {
+        return TYPES[types[index]];
+    }
+
+    CategoryType categoryAt(int index) {
+        return categories[index] != NO_CATEGORY ? CATEGORIES[categories[index]] : null;
+    }
+
+    BigDecimal amountAt(int index) {
+        return BigDecimal.valueOf(amounts[index], scales[index]);
+    }
+
+    /**
+     * Метод копирует строки из одного хранилища в другое
+     */
+    static void copy(TransactionColumns source, int sourceIndex, TransactionColumns target, int targetIndex, int length) {
+        System.arraycopy(source.idHigh, sourceIndex, target.idHigh, targetIndex, length);
+        System.arraycopy(source.idLow, sourceIndex, target.idLow, targetIndex, length);
+        System.arraycopy(source.amounts, sourceIndex, target.amounts, targetIndex, length);
+        System.arraycopy(source.scales, sourceIndex, target.scales, targetIndex, length);
+        System.arraycopy(source.timestamps, sourceIndex, target.timestamps, targetIndex, length);
+        System.arraycopy(source.types, sourceIndex, target.types, targetIndex, length);
+        System.arraycopy(source.categories, sourceIndex, target.categories, targetIndex, length);
+        System.arraycopy(source.sources, sourceIndex, target.sources, targetIndex, length);
+        System.arraycopy(source.targets, sourceIndex, target.targets, targetIndex, length);
+    }
+
+    /**
+     * Метод переводит дату в микросекунды от эпохи, насыщаясь на границах диапазона long
+     * @param date дата
+     * @return микросекунды от 1970-01-01T00:00
+     */
+    static long toEpochMicros(LocalDateTime date) {
+        long seconds = date.toEpochSecond(ZoneOffset.UTC);
+        if (seconds >= Long.MAX_VALUE / MICROS_PER_SECOND) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds <= Long.MIN_VALUE / MICROS_PER_SECOND) {
+            return Long.MIN_VALUE;
+        }
+        return seconds * MICROS_PER_SECOND + date.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1_000, ZoneOffset.UTC);
+    }
+}
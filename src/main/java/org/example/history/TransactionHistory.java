@@ -0,0 +1,369 @@
+package org.example.history;
+
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.metrics.Metrics;
+import org.example.money.Money;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * История транзакций счета из двух уровней.
+ * Свежие транзакции лежат в горячих колонках в куче, а транзакции старше hotPeriod при очередном расширении колонок
+ * переносятся в холодный уровень вне кучи. Чтение и поиск по дате проходят по обоим уровням прозрачно.
+ */
+public class TransactionHistory {
+
+    public static final Duration DEFAULT_HOT_PERIOD = Duration.ofDays(31);
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Срок, в течение которого транзакция остается в горячем уровне
+     */
+    private final Duration hotPeriod;
+    /**
+     * Часы, от которых отсчитывается hotPeriod при переносе транзакций в холодный уровень
+     */
+    private final Clock clock;
+    /**
+     * Старые транзакции вне кучи
+     */
+    private ColdTier cold = ColdTier.EMPTY;
+    /**
+     * Свежие транзакции в колоночном виде, упорядоченные по дате
+     */
+    private TransactionColumns hot = new TransactionColumns(INITIAL_CAPACITY);
+    /**
+     * Кол-во транзакций в горячем уровне
+     */
+    private int hotSize;
+    /**
+     * Счета, встречающиеся в транзакциях истории; в колонках хранится номер счета в этой таблице
+     */
+    private BankAccount[] accounts = new BankAccount[1];
+    /**
+     * Номера счетов в таблице счетов
+     */
+    private final Map<BankAccount, Integer> accountIds = new IdentityHashMap<>();
+    /**
+     * Сводка по типам, категориям и суммам всех транзакций истории
+     */
+    private HistorySummary summary = HistorySummary.EMPTY;
+    /**
+     * Последний опубликованный снимок истории
+     */
+    private volatile HistoryView snapshot = new HistoryView(cold, hot, accounts, summary, 0, 0, false);
+
+    public TransactionHistory() {
+        this(DEFAULT_HOT_PERIOD);
+    }
+
+    /**
+     * Конструктор класса TransactionHistory
+     * @param hotPeriod срок, после которого транзакции переносятся из кучи в холодный уровень
+     */
+    public TransactionHistory(Duration hotPeriod) {
+        this(hotPeriod, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Конструктор класса TransactionHistory
+     * @param hotPeriod срок, после которого транзакции переносятся из кучи в холодный уровень
+     * @param clock часы, по которым определяется возраст транзакций
+     */
+    public TransactionHistory(Duration hotPeriod, Clock clock) {
+        this.hotPeriod = hotPeriod;
+        this.clock = clock;
+    }
+
+    /**
+     * Метод добавляет транзакцию в историю с сохранением порядка по дате.
+     * Транзакции обычно приходят в хронологическом порядке, поэтому вставка сводится к записи в конец колонок.
+     * Запоздавшая транзакция вставляется в новую копию колонок, чтобы не испортить уже выданные снимки.
+     * @param transaction транзакция
+     */
+    public void add(Transaction transaction) {
+        checkAmount(transaction);
+        int sourceId = accountId(transaction.getSourceAccount());
+        int targetId = accountId(transaction.getTargetAccount());
+        summary = summary.with(transaction);
+        long timestamp = TransactionColumns.toEpochMicros(transaction.getDate());
+
+        if (size() == 0 || timestamp >= lastTimestamp()) {
+            ensureCapacity(hotSize + 1);
+            hot.write(hotSize++, transaction, sourceId, targetId);
+        } else {
+            int index = upperBound(snapshot, timestamp);
+            if (index >= cold.size()) {
+                insertHot(index - cold.size(), transaction, sourceId, targetId);
+            } else {
+                insertCold(index, transaction, sourceId, targetId);
+            }
+        }
+        publish();
+        Metrics.historyGrown(1);
+    }
+
+    /**
+     * Метод добавляет пачку транзакций, расширяя колонки не больше одного раза и публикуя один снимок.
+     * Если пачка не продолжает историю по времени, транзакции вставляются по одной на свои места.
+     * @param batch транзакции
+     */
+    public void addAll(List<Transaction> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batch.forEach(TransactionHistory::checkAmount);
+        if (!continuesHistory(batch)) {
+            batch.forEach(this::add);
+            return;
+        }
+
+        ensureCapacity(hotSize + batch.size());
+        for (Transaction transaction : batch) {
+            summary = summary.with(transaction);
+            hot.write(hotSize++, transaction,
+                    accountId(transaction.getSourceAccount()), accountId(transaction.getTargetAccount()));
+        }
+        publish();
+        Metrics.historyGrown(batch.size());
+    }
+
+    /**
+     * Метод проверяет сумму транзакции до любых изменений истории и сумм по категориям:
+     * сумма должна быть не точнее копейки, помещаться в {@link Money} и в строку хранилища
+     * @param transaction транзакция
+     * @throws IllegalArgumentException если сумму нельзя сохранить
+     */
+    public static void checkAmount(Transaction transaction) {
+        BigDecimal amount = transaction.getAmount();
+        if (amount == null || !isStorable(amount)) {
+            throw new IllegalArgumentException("Сумма транзакции не может быть сохранена в истории: " + amount);
+        }
+    }
+
+    /**
+     * Метод проверяет, что сумму можно сохранить в истории: она не точнее копейки, помещается в {@link Money}
+     * и в строку хранилища
+     * @param amount сумма
+     * @return {@code true}, если сумму можно сохранить
+     */
+    public static boolean isStorable(BigDecimal amount) {
+        return Money.isRepresentable(amount) && TransactionColumns.fits(amount);
+    }
+
+    /**
+     * Метод возвращает кол-во транзакций в истории
+     * @return кол-во транзакций
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Метод проверяет, пуста ли история
+     * @return {@code true}, если транзакций нет
+     */
+    public boolean isEmpty() {
+        return snapshot.isEmpty();
+    }
+
+    /**
+     * Метод возвращает кол-во транзакций, перенесенных в холодный уровень вне кучи
+     * @return кол-во холодных транзакций
+     */
+    public int coldSize() {
+        return snapshot.cold().size();
+    }
+
+    /**
+     * Метод возвращает снимок истории в хронологическом порядке.
+     * Снимок не копирует транзакции и не меняется при последующих добавлениях.
+     * @return неизменяемый снимок всей истории
+     */
+    public HistoryView all() {
+        return snapshot;
+    }
+
+    /**
+     * Метод возвращает транзакции за период, найденные двоичным поиском по дате
+     * @param from начало периода (включительно)
+     * @param to конец периода (не включительно)
+     * @return неизменяемое представление транзакций за период в хронологическом порядке
+     */
+    public HistoryView between(LocalDateTime from, LocalDateTime to) {
+        HistoryView current = snapshot;
+        int fromIndex = lowerBound(current, ceilEpochMicros(from));
+        int toIndex = Math.max(fromIndex, lowerBound(current, ceilEpochMicros(to)));
+        return current.slice(fromIndex, toIndex, false);
+    }
+
+    /**
+     * Метод возвращает последние N транзакций
+     * @param n кол-во транзакций
+     * @return неизменяемое представление последних транзакций, начиная с самой новой
+     */
+    public HistoryView latest(int n) {
+        HistoryView current = snapshot;
+        int count = Math.max(0, Math.min(n, current.size()));
+        return current.slice(current.size() - count, current.size(), true);
+    }
+
+    private void publish() {
+        snapshot = new HistoryView(cold, hot, accounts, summary, 0, cold.size() + hotSize, false);
+    }
+
+    /**
+     * Метод проверяет, что пачка упорядочена по времени и не старше последней транзакции истории
+     */
+    private boolean continuesHistory(List<Transaction> batch) {
+        long previous = size() > 0 ? lastTimestamp() : Long.MIN_VALUE;
+        for (Transaction transaction : batch) {
+            long timestamp = TransactionColumns.toEpochMicros(transaction.getDate());
+            if (timestamp < previous) {
+                return false;
+            }
+            previous = timestamp;
+        }
+        return true;
+    }
+
+    private long lastTimestamp() {
+        return hotSize > 0 ? hot.timestamps[hotSize - 1] : cold.timestampAt(cold.size() - 1);
+    }
+
+    /**
+     * Метод готовит место в горячем уровне.
+     * Когда колонки заполнены, сначала транзакции старше hotPeriod переносятся в холодный уровень,
+     * и только если места все равно не хватает, колонки расширяются.
+     * @param capacity требуемое кол-во строк в горячем уровне
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= hot.capacity()) {
+            return;
+        }
+
+        long cutoff = TransactionColumns.toEpochMicros(LocalDateTime.now(clock).minus(hotPeriod));
+        int expired = 0;
+        while (expired < hotSize && hot.timestamps[expired] < cutoff) {
+            expired++;
+        }
+        if (expired > 0) {
+            cold = cold.append(hot, 0, expired);
+            Metrics.historyFrozen(expired);
+        }
+
+        int remaining = hotSize - expired;
+        TransactionColumns moved = new TransactionColumns(
+                Math.max(INITIAL_CAPACITY, Math.max(capacity - expired, expired > 0 ? remaining * 2 : hot.capacity() * 2)));
+        TransactionColumns.copy(hot, expired, moved, 0, remaining);
+        hot = moved;
+        hotSize = remaining;
+    }
+
+    private void insertHot(int index, Transaction transaction, int sourceId, int targetId) {
+        TransactionColumns copy = new TransactionColumns(Math.max(hot.capacity(), hotSize + 1));
+        copy.write(index, transaction, sourceId, targetId);
+        TransactionColumns.copy(hot, 0, copy, 0, index);
+        TransactionColumns.copy(hot, index, copy, index + 1, hotSize - index);
+        hot = copy;
+        hotSize++;
+    }
+
+    /**
+     * Метод вставляет запоздавшую транзакцию, место которой уже в холодном уровне:
+     * хвост холодного уровня возвращается в горячие колонки вместе с новой транзакцией
+     */
+    private void insertCold(int index, Transaction transaction, int sourceId, int targetId) {
+        int thawed = cold.size() - index;
+        TransactionColumns copy = new TransactionColumns(Math.max(hot.capacity(), thawed + 1 + hotSize));
+        copy.write(0, transaction, sourceId, targetId);
+        cold.copyTo(index, copy, 1, thawed);
+        TransactionColumns.copy(hot, 0, copy, thawed + 1, hotSize);
+        cold = cold.truncate(index);
+        hot = copy;
+        hotSize += thawed + 1;
+        Metrics.historyFrozen(-thawed);
+    }
+
+    /**
+     * Метод возвращает номер счета в таблице счетов истории, добавляя его при первой встрече
+     * @param account счет
+     * @return номер счета или {@link TransactionColumns#NO_ACCOUNT}
+     */
+    private int accountId(BankAccount account) {
+        if (account == null) {
+            return TransactionColumns.NO_ACCOUNT;
+        }
+        Integer id = accountIds.get(account);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = accountIds.size();
+        if (newId == accounts.length) {
+            accounts = Arrays.copyOf(accounts, newId * 2);
+        }
+        accounts[newId] = account;
+        accountIds.put(account, newId);
+        return newId;
+    }
+
+    /**
+     * Метод переводит дату в микросекунды с округлением вверх, чтобы поиск по границе не зависел от наносекунд
+     * @param date дата
+     * @return микросекунды от эпохи
+     */
+    private static long ceilEpochMicros(LocalDateTime date) {
+        long micros = TransactionColumns.toEpochMicros(date);
+        return date.getNano() % 1_000 != 0 && micros != Long.MAX_VALUE ? micros + 1 : micros;
+    }
+
+    /**
+     * Метод ищет индекс первой транзакции с датой не раньше указанной
+     * @param view снимок истории
+     * @param timestamp дата в микросекундах
+     * @return индекс транзакции
+     */
+    private static int lowerBound(HistoryView view, long timestamp) {
+        int low = 0;
+        int high = view.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (view.timestampAtRow(middle) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Метод ищет индекс первой транзакции с датой позже указанной
+     * @param view снимок истории
+     * @param timestamp дата в микросекундах
+     * @return индекс транзакции
+     */
+    private static int upperBound(HistoryView view, long timestamp) {
+        int low = 0;
+        int high = view.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (view.timestampAtRow(middle) > timestamp) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Генератор идентификаторов, упорядоченных по времени, в раскладке UUID версии 7:
+ * 48 бит миллисекунд от эпохи, версия, последовательность внутри миллисекунды, вариант и 32 бита номера полосы.
+ * Состояние генератора — фиксированный набор из {@value #STRIPES} полос; поток выбирает полосу по своему номеру,
+ * так что число состояний не растет с числом потоков, в том числе виртуальных. Каждая полоса хранит миллисекунды
+ * и последовательность в одном атомарном long и продвигает его CAS без блокировок и без SecureRandom.
+ * Номер полосы смешан со случайной солью процесса, поэтому разные полосы не выдают одинаковых значений.
+ * В пределах потока идентификаторы строго возрастают, даже если системные часы отступили назад.
+ */
+public class TimeOrderedIdGenerator implements TransactionIdGenerator {
+
+    /**
+     * Кол-во полос, степень двойки
+     */
+    static final int STRIPES = 64;
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    /**
+     * Младшие биты состояния полосы под последовательность внутри миллисекунды; при переполнении
+     * последовательность переносится в миллисекунды, как и прежде
+     */
+    private static final int SEQUENCE_BITS = 16;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    /**
+     * Шаг между полосами в массиве: 8 long — одна строка кэша, чтобы соседние полосы не делили ее
+     */
+    private static final int PADDING = 8;
+
+    private final int salt = ThreadLocalRandom.current().nextInt();
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES * PADDING);
+
+    @Override
+    public TransactionId next() {
+        int stripe = (int) (Thread.currentThread().threadId() & (STRIPES - 1));
+        int index = stripe * PADDING;
+        long candidate = System.currentTimeMillis() << SEQUENCE_BITS;
+        long previous;
+        long state;
+        do {
+            previous = stripes.get(index);
+            state = candidate > previous ? candidate : previous + 1;
+        } while (!stripes.compareAndSet(index, previous, state));
+
+        long millis = state >>> SEQUENCE_BITS;
+        long sequence = state & SEQUENCE_MASK;
+        long high = millis << 16 | VERSION;
+        long low = VARIANT | sequence << 32 | (stripe ^ salt) & 0xFFFF_FFFFL;
+        return new TransactionId(high, low);
+    }
+}
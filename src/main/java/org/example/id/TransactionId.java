@@ -0,0 +1,81 @@
+package org.example.id;
+
+import java.util.UUID;
+
+/**
+ * Идентификатор транзакции из 128 бит, хранящийся в двух long.
+ * Строковое представление в формате UUID собирается только при первом обращении.
+ * Идентификаторы сравниваются как беззнаковые 128-битные числа, поэтому идентификаторы, упорядоченные
+ * по времени, упорядочены и при сравнении.
+ */
+public final class TransactionId implements Comparable<TransactionId> {
+
+    private final long high;
+    private final long low;
+    /**
+     * Строковое представление; гонка при первом заполнении безопасна, так как строка неизменяема
+     */
+    private String text;
+
+    public TransactionId(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Метод разбирает идентификатор из строки в формате UUID
+     * @param text строка идентификатора
+     * @return идентификатор
+     */
+    public static TransactionId parse(String text) {
+        UUID uuid = UUID.fromString(text);
+        TransactionId id = new TransactionId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        id.text = text;
+        return id;
+    }
+
+    public long high() {
+        return high;
+    }
+
+    public long low() {
+        return low;
+    }
+
+    /**
+     * Метод возвращает время создания идентификатора, если он создан {@link TimeOrderedIdGenerator}
+     * @return миллисекунды от эпохи
+     */
+    public long epochMillis() {
+        return high >>> 16;
+    }
+
+    @Override
+    public int compareTo(TransactionId other) {
+        int result = Long.compareUnsigned(high, other.high);
+        return result != 0 ? result : Long.compareUnsigned(low, other.low);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof TransactionId other && high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high * 31 + low);
+    }
+
+    @Override
+    public String toString() {
+        String result = text;
+        if (result == null) {
+            result = new UUID(high, low).toString();
+            text = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.id;
+
+/**
+ * Источник идентификаторов новых транзакций
+ */
+@FunctionalInterface
+public interface TransactionIdGenerator {
+
+    /**
+     * Метод возвращает новый уникальный идентификатор
+     * @return идентификатор
+     */
+    TransactionId next();
+}
@@ -0,0 +1,159 @@
+package org.example.journal;
+
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.enums.CategoryType;
+import org.example.enums.TransactionType;
+import org.example.id.TransactionId;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный формат журнала.
+ * Журнал и снимок состоят из кадров: [длина тела][CRC32C тела][тело]. Кадр с нулевой длиной означает конец данных.
+ * Тело начинается с вида кадра. Кадр транзакций описывает одну операцию: у него один seq и по разделу на каждый
+ * затронутый счет с балансом после операции и транзакциями, которые лежат записями фиксированной длины.
+ */
+final class JournalCodec {
+
+    static final byte ACCOUNT = 1;
+    static final byte TRANSACTIONS = 2;
+    static final byte SNAPSHOT = 3;
+
+    static final int FRAME_HEADER_SIZE = Integer.BYTES * 2;
+    /**
+     * id (16) + сумма (8) + масштаб (1) + дата (8) + тип (1) + категория (1) + счета (4 + 4)
+     */
+    static final int ENTRY_SIZE = 43;
+    /**
+     * вид (1) + seq (8) + кол-во разделов (4)
+     */
+    static final int TRANSACTIONS_HEADER_SIZE = 13;
+    /**
+     * счет (4) + баланс (8 + 1) + кол-во транзакций (4)
+     */
+    static final int SECTION_HEADER_SIZE = 17;
+
+    static final int NO_ACCOUNT = -1;
+    private static final byte NO_CATEGORY = -1;
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final CategoryType[] CATEGORIES = CategoryType.values();
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Метод дописывает кадр в буфер: заголовок с длиной и контрольной суммой, затем тело
+     * @param target буфер, в который пишется кадр
+     * @param body тело кадра от позиции 0 до limit
+     */
+    static void putFrame(ByteBuffer target, ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        target.putInt(body.remaining());
+        target.putInt((int) crc.getValue());
+        target.put(body);
+    }
+
+    /**
+     * Метод читает тело следующего кадра
+     * @param input поток кадров
+     * @return тело кадра или {@code null}, если данные закончились или кадр поврежден
+     */
+    static ByteBuffer readFrame(DataInputStream input) throws IOException {
+        try {
+            int length = input.readInt();
+            int checksum = input.readInt();
+            if (length <= 0) {
+                return null;
+            }
+            byte[] body = new byte[length];
+            input.readFully(body);
+
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            return (int) crc.getValue() == checksum ? ByteBuffer.wrap(body) : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    static void putEntry(ByteBuffer buffer, Transaction transaction, int sourceId, int targetId) {
+        TransactionId id = transaction.getTransactionId();
+        buffer.putLong(id.high());
+        buffer.putLong(id.low());
+        putAmount(buffer, transaction.getAmount());
+        buffer.putLong(toEpochMicros(transaction.getDate()));
+        buffer.put((byte) transaction.getType().ordinal());
+        buffer.put(transaction.getCategory() != null ? (byte) transaction.getCategory().ordinal() : NO_CATEGORY);
+        buffer.putInt(sourceId);
+        buffer.putInt(targetId);
+    }
+
+    static Transaction getEntry(ByteBuffer buffer, IntFunction<BankAccount> accounts) {
+        TransactionId id = new TransactionId(buffer.getLong(), buffer.getLong());
+        BigDecimal amount = getAmount(buffer);
+        LocalDateTime date = fromEpochMicros(buffer.getLong());
+        TransactionType type = TYPES[buffer.get()];
+        byte category = buffer.get();
+        int sourceId = buffer.getInt();
+        int targetId = buffer.getInt();
+        return new Transaction(id, amount, type,
+                category != NO_CATEGORY ? CATEGORIES[category] : null,
+                date,
+                sourceId != NO_ACCOUNT ? accounts.apply(sourceId) : null,
+                targetId != NO_ACCOUNT ? accounts.apply(targetId) : null);
+    }
+
+    static void putAmount(ByteBuffer buffer, BigDecimal amount) {
+        buffer.putLong(amount.unscaledValue().longValueExact());
+        buffer.put((byte) amount.scale());
+    }
+
+    static BigDecimal getAmount(ByteBuffer buffer) {
+        return BigDecimal.valueOf(buffer.getLong(), buffer.get());
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int stringSize(String value) {
+        return Integer.BYTES + (value != null ? value.getBytes(StandardCharsets.UTF_8).length : 0);
+    }
+
+    private static long toEpochMicros(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + date.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1_000, ZoneOffset.UTC);
+    }
+}
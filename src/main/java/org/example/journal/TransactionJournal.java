@@ -0,0 +1,637 @@
+package org.example.journal;
+
+import lombok.Getter;
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.listeners.AccountChange;
+import org.example.listeners.TransactionLog;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Журнал транзакций на диске.
+ * Каждое изменение счета дописывается кадром в сегмент, отображенный в память, до того как счет его применит:
+ * если запись не удалась, операция завершается ошибкой и счет не меняется. Перевод записывается одним кадром
+ * сразу для обоих счетов, поэтому после сбоя не бывает списания без зачисления. Сброс на диск выполняется
+ * групповым коммитом: фоновой задачей раз в commitInterval или одним fsync на всех, кто ждет в {@link #sync()}.
+ * Снимок сохраняет состояние всех счетов и позволяет удалить старые сегменты, ограничивая время восстановления.
+ */
+public class TransactionJournal implements TransactionLog, AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final Duration DEFAULT_COMMIT_INTERVAL = Duration.ofMillis(10);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_CHUNK = 65_536;
+
+    private final Path directory;
+    private final int segmentSize;
+    /**
+     * Пользователи и счета, восстановленные из журнала при открытии
+     */
+    @Getter
+    private final Collection<User> recoveredUsers;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object flushLock = new Object();
+    private final Object snapshotLock = new Object();
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<BankAccount, Integer> accountIds = new IdentityHashMap<>();
+    private final List<BankAccount> accounts = new ArrayList<>();
+    private long[] lastSeqs = new long[16];
+
+    private int segmentIndex;
+    private MappedByteBuffer segment;
+    private int forcedPosition;
+    private long nextSeq;
+    private long writtenSeq;
+    private volatile long durableSeq;
+    private ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+    private volatile boolean closed;
+    /**
+     * Ошибка последнего периодического снимка; следующий снимок по расписанию повторит попытку
+     */
+    @Getter
+    private volatile Exception lastSnapshotError;
+
+    private TransactionJournal(Path directory, int segmentSize, Duration commitInterval,
+                               Duration snapshotInterval) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        this.recoveredUsers = recover();
+        this.segmentIndex = lastIndex(SEGMENT_PREFIX, SEGMENT_SUFFIX) + 1;
+        this.segment = mapSegment(segmentIndex, segmentSize);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-journal-" + directory.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long commitMillis = Math.max(1, commitInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, commitMillis, commitMillis, TimeUnit.MILLISECONDS);
+        if (snapshotInterval != null) {
+            long snapshotMillis = snapshotInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+        }
+
+        for (User user : recoveredUsers) {
+            for (BankAccount account : user.getAccounts()) {
+                account.attachLog(this);
+            }
+        }
+    }
+
+    /**
+     * Метод открывает журнал с настройками по умолчанию и без периодических снимков
+     * @param directory каталог журнала
+     * @return открытый журнал с восстановленными счетами
+     */
+    public static TransactionJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_COMMIT_INTERVAL, null);
+    }
+
+    /**
+     * Метод открывает журнал, восстанавливая счета из последнего снимка и сегментов после него
+     * @param directory каталог журнала
+     * @param segmentSize размер сегмента в байтах
+     * @param commitInterval период фонового сброса на диск
+     * @param snapshotInterval период снимков или {@code null}, если снимки делаются только вручную
+     * @return открытый журнал с восстановленными счетами
+     */
+    public static TransactionJournal open(Path directory, int segmentSize, Duration commitInterval,
+                                          Duration snapshotInterval) throws IOException {
+        return new TransactionJournal(directory, segmentSize, commitInterval, snapshotInterval);
+    }
+
+    /**
+     * Метод подключает счет к журналу: записывает его описание и уже накопленную историю,
+     * после чего счет записывает в журнал каждое свое изменение
+     * @param account счет
+     */
+    public void attach(BankAccount account) {
+        account.withLock(() -> {
+            List<Transaction> history = account.getTransactions();
+            if (history.isEmpty()) {
+                appendLock.lock();
+                try {
+                    register(account);
+                } finally {
+                    appendLock.unlock();
+                }
+            } else {
+                write(List.of(new AccountChange(account, account.getBalanceMoney(), history)));
+            }
+            account.attachLog(this);
+            return null;
+        });
+    }
+
+    /**
+     * Метод дописывает изменения счетов одной операции в журнал одним кадром
+     * @param changes изменения счетов одной операции
+     */
+    @Override
+    public void write(List<AccountChange> changes) {
+        appendLock.lock();
+        try {
+            int size = JournalCodec.TRANSACTIONS_HEADER_SIZE;
+            int[] accountIds = new int[changes.size()];
+            int[][] counterparties = new int[changes.size()][];
+            for (int c = 0; c < changes.size(); c++) {
+                List<Transaction> transactions = changes.get(c).transactions();
+                accountIds[c] = register(changes.get(c).account());
+                counterparties[c] = new int[transactions.size() * 2];
+                for (int i = 0; i < transactions.size(); i++) {
+                    counterparties[c][2 * i] = register(transactions.get(i).getSourceAccount());
+                    counterparties[c][2 * i + 1] = register(transactions.get(i).getTargetAccount());
+                }
+                size += JournalCodec.SECTION_HEADER_SIZE + transactions.size() * JournalCodec.ENTRY_SIZE;
+            }
+
+            long seq = nextSeq++;
+            ByteBuffer body = scratch(size);
+            body.put(JournalCodec.TRANSACTIONS);
+            body.putLong(seq);
+            body.putInt(changes.size());
+            for (int c = 0; c < changes.size(); c++) {
+                AccountChange change = changes.get(c);
+                body.putInt(accountIds[c]);
+                JournalCodec.putAmount(body, change.balance().toBigDecimal());
+                body.putInt(change.transactions().size());
+                for (int i = 0; i < change.transactions().size(); i++) {
+                    JournalCodec.putEntry(body, change.transactions().get(i),
+                            counterparties[c][2 * i], counterparties[c][2 * i + 1]);
+                }
+            }
+            append(body.flip(), seq);
+            for (int accountId : accountIds) {
+                lastSeqs[accountId] = seq;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Метод дожидается, пока все записанные к моменту вызова кадры окажутся на диске.
+     * Одновременные вызовы объединяются в один fsync.
+     */
+    public void sync() {
+        long target;
+        appendLock.lock();
+        try {
+            target = writtenSeq;
+        } finally {
+            appendLock.unlock();
+        }
+        flush(target);
+    }
+
+    /**
+     * Метод сохраняет снимок всех подключенных счетов и удаляет сегменты, которые снимок покрывает
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            int startSegment;
+            appendLock.lock();
+            try {
+                roll(0);
+                startSegment = segmentIndex;
+            } finally {
+                appendLock.unlock();
+            }
+
+            List<AccountState> states = new ArrayList<>();
+            for (int id = 0; id < registeredCount(); id++) {
+                states.add(capture(registeredAccount(id), id));
+            }
+
+            Path temporary = directory.resolve(SNAPSHOT_PREFIX + "tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(1 + Integer.BYTES).put(JournalCodec.SNAPSHOT).putInt(startSegment);
+                writeFrame(channel, header.flip());
+                // счета, подключенные после начала снимка, восстановятся целиком из новых сегментов
+                for (int id = 0; id < registeredCount(); id++) {
+                    long seq = id < states.size() ? states.get(id).seq : -1;
+                    writeFrame(channel, accountFrame(registeredAccount(id), id, seq));
+                }
+                for (AccountState state : states) {
+                    writeHistory(channel, state);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(SNAPSHOT_PREFIX + startSegment + SNAPSHOT_SUFFIX),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            deleteBefore(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, startSegment);
+            deleteBefore(SEGMENT_PREFIX, SEGMENT_SUFFIX, startSegment);
+        }
+    }
+
+    /**
+     * Метод отключает журнал от счетов, сбрасывает записанные кадры на диск и останавливает фоновые задачи
+     */
+    @Override
+    public void close() {
+        for (int id = 0; id < registeredCount(); id++) {
+            registeredAccount(id).detachLog(this);
+        }
+        closed = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+    }
+
+    /**
+     * Метод возвращает номер счета в журнале, записывая описание счета при первой встрече.
+     * Вызывается только под appendLock.
+     * @param account счет
+     * @return номер счета или {@link JournalCodec#NO_ACCOUNT}
+     */
+    private int register(BankAccount account) {
+        if (account == null) {
+            return JournalCodec.NO_ACCOUNT;
+        }
+        Integer known = accountIds.get(account);
+        if (known != null) {
+            return known;
+        }
+
+        int id = accounts.size();
+        long seq = nextSeq++;
+        append(accountFrame(account, id, seq), seq);
+        accounts.add(account);
+        accountIds.put(account, id);
+        if (id == lastSeqs.length) {
+            lastSeqs = Arrays.copyOf(lastSeqs, id * 2);
+        }
+        lastSeqs[id] = seq;
+        return id;
+    }
+
+    private ByteBuffer accountFrame(BankAccount account, int id, long seq) {
+        User owner = account.getOwner();
+        String ownerId = owner != null ? owner.getId() : null;
+        String ownerName = owner != null ? owner.getName() : null;
+        ByteBuffer body = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + JournalCodec.stringSize(account.getAccountNumber())
+                + JournalCodec.stringSize(ownerId) + JournalCodec.stringSize(ownerName));
+        body.put(JournalCodec.ACCOUNT);
+        body.putLong(seq);
+        body.putInt(id);
+        JournalCodec.putString(body, account.getAccountNumber());
+        JournalCodec.putString(body, ownerId);
+        JournalCodec.putString(body, ownerName);
+        return body.flip();
+    }
+
+    /**
+     * Метод дописывает кадр в текущий сегмент, переходя на новый сегмент при нехватке места.
+     * Вызывается только под appendLock.
+     */
+    private void append(ByteBuffer body, long seq) {
+        if (closed) {
+            throw new IllegalStateException("Журнал транзакций закрыт");
+        }
+        int frameSize = JournalCodec.FRAME_HEADER_SIZE + body.remaining();
+        if (segment.remaining() < frameSize) {
+            roll(frameSize);
+        }
+        JournalCodec.putFrame(segment, body);
+        writtenSeq = seq;
+    }
+
+    /**
+     * Метод сбрасывает текущий сегмент на диск и открывает следующий.
+     * Вызывается только под appendLock.
+     * @param minimumSize минимальный размер нового сегмента
+     */
+    private void roll(int minimumSize) {
+        segment.force();
+        try {
+            segment = mapSegment(segmentIndex + 1, Math.max(segmentSize, minimumSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segmentIndex++;
+        forcedPosition = 0;
+        durableSeq = Math.max(durableSeq, writtenSeq);
+    }
+
+    private void flush(long target) {
+        synchronized (flushLock) {
+            if (durableSeq >= target) {
+                return;
+            }
+
+            MappedByteBuffer current;
+            int from;
+            int to;
+            long seq;
+            appendLock.lock();
+            try {
+                current = segment;
+                from = forcedPosition;
+                to = segment.position();
+                seq = writtenSeq;
+            } finally {
+                appendLock.unlock();
+            }
+
+            if (to > from) {
+                current.force(from, to - from);
+            }
+
+            appendLock.lock();
+            try {
+                if (current == segment) {
+                    forcedPosition = Math.max(forcedPosition, to);
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            durableSeq = Math.max(durableSeq, seq);
+        }
+    }
+
+    private void flushQuietly() {
+        flush(Long.MAX_VALUE);
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+            lastSnapshotError = null;
+        } catch (IOException | UncheckedIOException e) {
+            lastSnapshotError = e;
+        }
+    }
+
+    /**
+     * Метод фиксирует состояние счета под его блокировкой: баланс, снимок истории и последний кадр журнала
+     */
+    private AccountState capture(BankAccount account, int id) {
+        return account.withLock(() -> {
+            appendLock.lock();
+            try {
+                return new AccountState(id, lastSeqs[id], account.getBalance(), account.getTransactions());
+            } finally {
+                appendLock.unlock();
+            }
+        });
+    }
+
+    private void writeHistory(FileChannel channel, AccountState state) throws IOException {
+        List<Transaction> history = state.history;
+        int from = 0;
+        do {
+            int count = Math.min(SNAPSHOT_CHUNK, history.size() - from);
+            ByteBuffer body = ByteBuffer.allocate(JournalCodec.TRANSACTIONS_HEADER_SIZE
+                    + JournalCodec.SECTION_HEADER_SIZE + count * JournalCodec.ENTRY_SIZE);
+            body.put(JournalCodec.TRANSACTIONS);
+            body.putLong(state.seq);
+            body.putInt(1);
+            body.putInt(state.id);
+            JournalCodec.putAmount(body, state.balance);
+            body.putInt(count);
+            for (int i = from; i < from + count; i++) {
+                Transaction transaction = history.get(i);
+                JournalCodec.putEntry(body, transaction,
+                        registeredId(transaction.getSourceAccount()), registeredId(transaction.getTargetAccount()));
+            }
+            writeFrame(channel, body.flip());
+            from += count;
+        } while (from < history.size());
+    }
+
+    private static void writeFrame(FileChannel channel, ByteBuffer body) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(JournalCodec.FRAME_HEADER_SIZE + body.remaining());
+        JournalCodec.putFrame(frame, body);
+        frame.flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    private int registeredCount() {
+        appendLock.lock();
+        try {
+            return accounts.size();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private BankAccount registeredAccount(int id) {
+        appendLock.lock();
+        try {
+            return accounts.get(id);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private int registeredId(BankAccount account) {
+        if (account == null) {
+            return JournalCodec.NO_ACCOUNT;
+        }
+        appendLock.lock();
+        try {
+            Integer id = accountIds.get(account);
+            if (id == null) {
+                throw new IllegalStateException("Счет " + account.getAccountNumber() + " не подключен к журналу");
+            }
+            return id;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private ByteBuffer scratch(int capacity) {
+        if (scratch.capacity() < capacity) {
+            scratch = ByteBuffer.allocate(Math.max(capacity, scratch.capacity() * 2));
+        }
+        return scratch.clear();
+    }
+
+    private MappedByteBuffer mapSegment(int index, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(SEGMENT_PREFIX + index + SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Метод восстанавливает счета: читает последний снимок, затем кадры сегментов, которые снимок не покрывает
+     * @return восстановленные пользователи со счетами
+     */
+    private Collection<User> recover() throws IOException {
+        Recovery recovery = new Recovery();
+
+        int snapshotIndex = lastIndex(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        int startSegment = 0;
+        if (snapshotIndex >= 0) {
+            startSegment = snapshotIndex;
+            recovery.read(directory.resolve(SNAPSHOT_PREFIX + snapshotIndex + SNAPSHOT_SUFFIX), true);
+        }
+        for (int index : indexes(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (index >= startSegment) {
+                recovery.read(directory.resolve(SEGMENT_PREFIX + index + SEGMENT_SUFFIX), false);
+            }
+        }
+
+        Map<String, User> users = new LinkedHashMap<>();
+        for (int id = 0; id < recovery.accounts.size(); id++) {
+            BankAccount account = recovery.accounts.get(id);
+            account.restore(recovery.histories.get(id), recovery.balances.get(id));
+            if (account.getOwner() != null) {
+                users.putIfAbsent(account.getOwner().getId(), account.getOwner());
+                account.getOwner().addAccount(account);
+            }
+            accounts.add(account);
+            accountIds.put(account, id);
+        }
+        lastSeqs = Arrays.copyOf(recovery.lastSeqs, Math.max(16, recovery.accounts.size() * 2));
+        nextSeq = recovery.maxSeq + 1;
+        writtenSeq = recovery.maxSeq;
+        durableSeq = recovery.maxSeq;
+        return List.copyOf(users.values());
+    }
+
+    private int lastIndex(String prefix, String suffix) throws IOException {
+        List<Integer> indexes = indexes(prefix, suffix);
+        return indexes.isEmpty() ? -1 : indexes.getLast();
+    }
+
+    private List<Integer> indexes(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> name.substring(prefix.length(), name.length() - suffix.length()))
+                    .filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+                    .map(Integer::parseInt)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void deleteBefore(String prefix, String suffix, int index) throws IOException {
+        for (int existing : indexes(prefix, suffix)) {
+            if (existing < index) {
+                Files.deleteIfExists(directory.resolve(prefix + existing + suffix));
+            }
+        }
+    }
+
+    /**
+     * Зафиксированное для снимка состояние счета
+     */
+    private record AccountState(int id, long seq, BigDecimal balance, List<Transaction> history) {
+    }
+
+    /**
+     * Накопитель состояния при чтении снимка и сегментов
+     */
+    private static class Recovery {
+        private final List<BankAccount> accounts = new ArrayList<>();
+        private final List<List<Transaction>> histories = new ArrayList<>();
+        private final List<BigDecimal> balances = new ArrayList<>();
+        private final Map<String, User> owners = new LinkedHashMap<>();
+        private long[] lastSeqs = new long[16];
+        private long maxSeq = -1;
+
+        void read(Path file, boolean snapshot) throws IOException {
+            try (InputStream stream = Files.newInputStream(file);
+                 DataInputStream input = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+                ByteBuffer body;
+                while ((body = JournalCodec.readFrame(input)) != null) {
+                    byte kind = body.get();
+                    if (kind == JournalCodec.ACCOUNT) {
+                        readAccount(body);
+                    } else if (kind == JournalCodec.TRANSACTIONS) {
+                        readTransactions(body, snapshot);
+                    }
+                }
+            }
+        }
+
+        private void readAccount(ByteBuffer body) {
+            long seq = body.getLong();
+            int id = body.getInt();
+            String accountNumber = JournalCodec.getString(body);
+            String ownerId = JournalCodec.getString(body);
+            String ownerName = JournalCodec.getString(body);
+            maxSeq = Math.max(maxSeq, seq);
+            if (id < accounts.size()) {
+                return;
+            }
+
+            User owner = ownerId != null ? owners.computeIfAbsent(ownerId, key -> new User(key, ownerName)) : null;
+            accounts.add(new BankAccount(accountNumber, owner));
+            histories.add(new ArrayList<>());
+            balances.add(BigDecimal.ZERO);
+            if (id == lastSeqs.length) {
+                lastSeqs = Arrays.copyOf(lastSeqs, id * 2);
+            }
+            lastSeqs[id] = seq;
+        }
+
+        private void readTransactions(ByteBuffer body, boolean snapshot) {
+            long seq = body.getLong();
+            int sections = body.getInt();
+            maxSeq = Math.max(maxSeq, seq);
+            for (int section = 0; section < sections; section++) {
+                int id = body.getInt();
+                BigDecimal balance = JournalCodec.getAmount(body);
+                int count = body.getInt();
+                if (!snapshot && seq <= lastSeqs[id]) {
+                    body.position(body.position() + count * JournalCodec.ENTRY_SIZE);
+                    continue;
+                }
+
+                List<Transaction> history = histories.get(id);
+                for (int i = 0; i < count; i++) {
+                    history.add(JournalCodec.getEntry(body, accounts::get));
+                }
+                balances.set(id, balance);
+                lastSeqs[id] = seq;
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.listeners;
+
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.money.Money;
+
+import java.util.List;
+
+/**
+ * Изменение одного счета в рамках операции: баланс после операции и транзакции, которые она добавляет в историю
+ * @param account счет
+ * @param balance баланс счета после операции
+ * @param transactions новые транзакции в порядке добавления; пусто, если меняется только баланс
+ */
+public record AccountChange(BankAccount account, Money balance, List<Transaction> transactions) {
+}
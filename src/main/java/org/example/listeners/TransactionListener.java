@@ -0,0 +1,20 @@
+package org.example.listeners;
+
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+
+import java.util.List;
+
+public interface TransactionListener {
+
+    /**
+     * Метод вызывается после того, как транзакции попали в историю счета.
+     * Вызов идет под блокировкой счета, поэтому баланс счета уже учитывает эти транзакции, а вызовы для одного счета
+     * приходят в порядке изменений. Метод не должен ждать: все, что может ждать, он возвращает действием,
+     * которое выполнит поток операции после снятия блокировки счета.
+     * @param account счет
+     * @param transactions новые транзакции в порядке добавления
+     * @return действие после снятия блокировки или {@code null}
+     */
+    Runnable onTransactions(BankAccount account, List<Transaction> transactions);
+}
@@ -0,0 +1,15 @@
+package org.example.listeners;
+
+import java.util.List;
+
+public interface TransactionLog {
+
+    /**
+     * Метод записывает изменения счетов до того, как они будут применены.
+     * Вызывается под блокировками всех затронутых счетов. Изменения одной операции записываются вместе,
+     * так что после сбоя восстанавливаются либо все, либо ни одно. Исключение отменяет операцию:
+     * счета остаются без изменений.
+     * @param changes изменения счетов одной операции
+     */
+    void write(List<AccountChange> changes);
+}
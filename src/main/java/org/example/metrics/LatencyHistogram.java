@@ -0,0 +1,115 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек в наносекундах с логарифмически-линейными корзинами, как в HdrHistogram.
+ * Каждая степень двойки делится на {@link #SUB_BUCKETS} равных корзин, поэтому относительная погрешность
+ * перцентилей не больше 1/16 во всем диапазоне long, а вся гистограмма занимает около 8 КБ.
+ * Запись только выбирает корзину битовыми операциями и увеличивает счетчики, ничего не создавая.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    /**
+     * Кол-во корзин на одну степень двойки
+     */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Метод записывает задержку
+     * @param nanos задержка в наносекундах; отрицательные значения считаются нулем
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.getAndIncrement(bucketOf(value));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Метод возвращает кол-во записанных задержек
+     * @return кол-во задержек
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Метод возвращает наибольшую записанную задержку
+     * @return задержка в наносекундах или 0, если задержек не было
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Метод возвращает среднюю задержку
+     * @return задержка в наносекундах или 0, если задержек не было
+     */
+    public double mean() {
+        long records = count.sum();
+        return records == 0 ? 0 : (double) total.sum() / records;
+    }
+
+    /**
+     * Метод возвращает задержку, которую не превышает указанная доля записей
+     * @param percentile перцентиль от 0 до 100
+     * @return верхняя граница корзины перцентиля в наносекундах или 0, если задержек не было
+     */
+    public long valueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long records = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            records += snapshot[i];
+        }
+        if (records == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * records));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Метод возвращает номер корзины значения: значения меньше SUB_BUCKETS лежат в своих корзинах,
+     * остальные — в корзине своей степени двойки по старшим SUB_BUCKET_BITS битам после ведущего
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Метод возвращает наибольшее значение, попадающее в корзину
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики операций со счетами и аналитики внутри процесса.
+ * Операция замеряется парой вызовов {@link #start()} и {@link #stop(Operation, long)}; отказ дополнительно
+ * отмечается через {@link #reject(Operation)}. Все вызовы только увеличивают счетчики и ничего не создают,
+ * поэтому метрики можно держать включенными в продакшене. Выключенные метрики не читают даже часы.
+ */
+public final class Metrics {
+
+    /**
+     * Имя, под которым метрики регистрируются в JMX
+     */
+    public static final String OBJECT_NAME = "org.example:type=Metrics";
+
+    private static final OperationMetrics[] OPERATIONS = new OperationMetrics[Operation.values().length];
+    private static final LongAdder HISTORY_SIZE = new LongAdder();
+    private static final LongAdder COLD_HISTORY_SIZE = new LongAdder();
+    private static volatile boolean enabled = true;
+    /**
+     * Момент последнего включения замеров по {@link System#nanoTime()}; операции, начатые раньше, не записываются
+     */
+    private static volatile long enabledAt = System.nanoTime();
+
+    static {
+        for (Operation operation : Operation.values()) {
+            OPERATIONS[operation.ordinal()] = new OperationMetrics(operation);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Метод отмечает начало операции.
+     * Выключенные метрики не читают часы и возвращают отметку раньше последнего включения, поэтому операция,
+     * начатая до включения, не попадет в замеры; любое значение {@link System#nanoTime()}, в том числе 0
+     * и отрицательное, остается обычной отметкой.
+     * @return отметка времени для {@link #stop(Operation, long)}
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : enabledAt - 1;
+    }
+
+    /**
+     * Метод записывает завершение операции, если метрики включены и операция начата после их включения
+     * @param operation операция
+     * @param start отметка, полученная из {@link #start()}
+     */
+    public static void stop(Operation operation, long start) {
+        if (enabled && start - enabledAt >= 0) {
+            OPERATIONS[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Метод отмечает отказ в операции
+     * @param operation операция
+     */
+    public static void reject(Operation operation) {
+        reject(operation, 1);
+    }
+
+    /**
+     * Метод отмечает несколько отказов в операции
+     * @param operation операция
+     * @param count кол-во отказов
+     */
+    public static void reject(Operation operation, int count) {
+        if (enabled && count > 0) {
+            OPERATIONS[operation.ordinal()].reject(count);
+        }
+    }
+
+    /**
+     * Метод учитывает изменение размера историй счетов
+     * @param added кол-во транзакций, добавленных в истории
+     */
+    public static void historyGrown(int added) {
+        HISTORY_SIZE.add(added);
+    }
+
+    /**
+     * Метод учитывает перенос транзакций между горячим и холодным уровнями истории
+     * @param frozen кол-во транзакций, перенесенных в холодный уровень; отрицательное, если они вернулись в горячий
+     */
+    public static void historyFrozen(int frozen) {
+        COLD_HISTORY_SIZE.add(frozen);
+    }
+
+    /**
+     * Метод возвращает метрики операции
+     * @param operation операция
+     * @return метрики операции
+     */
+    public static OperationMetrics of(Operation operation) {
+        return OPERATIONS[operation.ordinal()];
+    }
+
+    /**
+     * Метод возвращает общее кол-во транзакций во всех историях счетов
+     * @return кол-во транзакций
+     */
+    public static long historySize() {
+        return HISTORY_SIZE.sum();
+    }
+
+    /**
+     * Метод возвращает общее кол-во транзакций в холодных уровнях историй
+     * @return кол-во транзакций вне кучи
+     */
+    public static long coldHistorySize() {
+        return COLD_HISTORY_SIZE.sum();
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Метод включает или выключает замеры операций; размеры историй учитываются всегда,
+     * иначе после включения они разошлись бы с настоящими
+     * @param value {@code true}, чтобы замерять операции
+     */
+    public static synchronized void setEnabled(boolean value) {
+        if (value && !enabled) {
+            enabledAt = System.nanoTime();
+        }
+        enabled = value;
+    }
+
+    /**
+     * Метод регистрирует метрики в платформенном MBeanServer под именем {@link #OBJECT_NAME}.
+     * Повторная регистрация ничего не делает.
+     */
+    public static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new MetricsMXBeanImpl(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // уже зарегистрированы
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать метрики в JMX", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.metrics;
+
+import java.util.Map;
+
+/**
+ * Метрики в JMX. Значения по операциям отдаются таблицами, где ключом является имя операции.
+ */
+public interface MetricsMXBean {
+
+    Map<String, Long> getCalls();
+
+    Map<String, Long> getRejections();
+
+    Map<String, Double> getMeanMicros();
+
+    Map<String, Double> getP50Micros();
+
+    Map<String, Double> getP99Micros();
+
+    Map<String, Double> getP999Micros();
+
+    Map<String, Double> getMaxMicros();
+
+    long getHistorySize();
+
+    long getColdHistorySize();
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+}
@@ -0,0 +1,81 @@
+package org.example.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Представление {@link Metrics} в JMX; значения считываются при каждом запросе
+ */
+class MetricsMXBeanImpl implements MetricsMXBean {
+
+    private static final double NANOS_PER_MICRO = 1_000;
+
+    @Override
+    public Map<String, Long> getCalls() {
+        return byOperation(OperationMetrics::calls);
+    }
+
+    @Override
+    public Map<String, Long> getRejections() {
+        return byOperation(OperationMetrics::rejections);
+    }
+
+    @Override
+    public Map<String, Double> getMeanMicros() {
+        return latencyMicros(LatencyHistogram::mean);
+    }
+
+    @Override
+    public Map<String, Double> getP50Micros() {
+        return latencyMicros(latency -> latency.valueAtPercentile(50));
+    }
+
+    @Override
+    public Map<String, Double> getP99Micros() {
+        return latencyMicros(latency -> latency.valueAtPercentile(99));
+    }
+
+    @Override
+    public Map<String, Double> getP999Micros() {
+        return latencyMicros(latency -> latency.valueAtPercentile(99.9));
+    }
+
+    @Override
+    public Map<String, Double> getMaxMicros() {
+        return latencyMicros(LatencyHistogram::max);
+    }
+
+    @Override
+    public long getHistorySize() {
+        return Metrics.historySize();
+    }
+
+    @Override
+    public long getColdHistorySize() {
+        return Metrics.coldHistorySize();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return Metrics.isEnabled();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        Metrics.setEnabled(enabled);
+    }
+
+    private static <T> Map<String, T> byOperation(Function<OperationMetrics, T> value) {
+        Map<String, T> result = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            result.put(operation.name(), value.apply(Metrics.of(operation)));
+        }
+        return result;
+    }
+
+    private static Map<String, Double> latencyMicros(ToDoubleFunction<LatencyHistogram> nanos) {
+        return byOperation(metrics -> nanos.applyAsDouble(metrics.latency()) / NANOS_PER_MICRO);
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.metrics;
+
+/**
+ * Операции, для которых ведутся счетчики и гистограммы задержек
+ */
+public enum Operation {
+    DEPOSIT,
+    WITHDRAW,
+    PAYMENT,
+    PAYMENTS_BATCH,
+    TRANSFER,
+    SPENDING_BY_CATEGORY,
+    SPENDING_BY_CATEGORIES,
+    PAYMENTS_SORTED_BY_AMOUNT,
+    LAST_N_TRANSACTIONS,
+    TOP_N_TRANSACTIONS
+}
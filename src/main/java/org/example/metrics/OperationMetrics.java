@@ -0,0 +1,51 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики одной операции: кол-во вызовов, кол-во отказов и задержки
+ */
+public final class OperationMetrics {
+
+    private final Operation operation;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(Operation operation) {
+        this.operation = operation;
+    }
+
+    void record(long nanos) {
+        calls.increment();
+        latency.record(nanos);
+    }
+
+    void reject(long count) {
+        rejections.add(count);
+    }
+
+    public Operation operation() {
+        return operation;
+    }
+
+    /**
+     * Метод возвращает кол-во завершенных вызовов, включая завершенные отказом
+     * @return кол-во вызовов
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * Метод возвращает кол-во отказов: брошенных TransferException или отклоненных платежей пачки
+     * @return кол-во отказов
+     */
+    public long rejections() {
+        return rejections.sum();
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Денежная сумма в копейках.
+ * Значение хранится в long с фиксированным масштабом {@link #MINOR_SCALE}, поэтому сложение и сравнение не создают
+ * BigDecimal. Дополнительно хранится масштаб, с которым сумма отдается наружу: он ведет себя так же, как масштаб
+ * результата BigDecimal.add, и сумма 10 + 5 остается "15", а не "15.00".
+ * Переполнение long при арифметике приводит к ArithmeticException.
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * Кол-во знаков после запятой у минимальной единицы
+     */
+    public static final int MINOR_SCALE = 2;
+
+    public static final Money ZERO = new Money(0, 0);
+
+    private static final BigDecimal MAX_AMOUNT = BigDecimal.valueOf(Long.MAX_VALUE, MINOR_SCALE);
+
+    /**
+     * Сумма в минимальных единицах
+     */
+    private final long minorUnits;
+    /**
+     * Масштаб суммы при переводе в BigDecimal, от 0 до MINOR_SCALE
+     */
+    private final int scale;
+
+    private Money(long minorUnits, int scale) {
+        this.minorUnits = minorUnits;
+        this.scale = scale;
+    }
+
+    /**
+     * Метод переводит BigDecimal в Money
+     * @param amount сумма
+     * @return сумма в копейках
+     * @throws ArithmeticException если сумма точнее копейки или не помещается в long
+     */
+    public static Money of(BigDecimal amount) {
+        return new Money(toMinorUnits(amount), displayScale(amount));
+    }
+
+    /**
+     * Метод создает сумму из минимальных единиц
+     * @param minorUnits сумма в минимальных единицах
+     * @param scale масштаб суммы при переводе в BigDecimal
+     * @return сумма
+     */
+    public static Money ofMinor(long minorUnits, int scale) {
+        if (scale < 0 || scale > MINOR_SCALE) {
+            throw new IllegalArgumentException("Недопустимый масштаб суммы: " + scale);
+        }
+        return new Money(minorUnits, scale);
+    }
+
+    /**
+     * Метод проверяет, можно ли представить сумму в копейках без потери точности
+     * @param amount сумма
+     * @return {@code true}, если сумма не точнее копейки и помещается в long
+     */
+    public static boolean isRepresentable(BigDecimal amount) {
+        if (amount.scale() > MINOR_SCALE && amount.stripTrailingZeros().scale() > MINOR_SCALE) {
+            return false;
+        }
+        return amount.abs().compareTo(MAX_AMOUNT) <= 0;
+    }
+
+    /**
+     * Метод переводит BigDecimal в минимальные единицы
+     * @param amount сумма
+     * @return сумма в минимальных единицах
+     * @throws ArithmeticException если сумма точнее копейки или не помещается в long
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(MINOR_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Метод возвращает масштаб, с которым сумма будет отдаваться наружу
+     * @param amount сумма
+     * @return масштаб от 0 до MINOR_SCALE
+     */
+    public static int displayScale(BigDecimal amount) {
+        return Math.clamp(amount.scale(), 0, MINOR_SCALE);
+    }
+
+    /**
+     * Метод переводит минимальные единицы в BigDecimal
+     * @param minorUnits сумма в минимальных единицах
+     * @param scale масштаб результата
+     * @return сумма
+     */
+    public static BigDecimal toBigDecimal(long minorUnits, int scale) {
+        return BigDecimal.valueOf(minorUnits, MINOR_SCALE).setScale(scale, RoundingMode.UNNECESSARY);
+    }
+
+    public Money add(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits), Math.max(scale, other.scale));
+    }
+
+    public Money subtract(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), Math.max(scale, other.scale));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Метод переводит сумму в BigDecimal на границе API
+     * @return сумма с масштабом, накопленным при арифметике
+     */
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minorUnits, scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    /**
+     * Суммы равны, если совпадают значение и масштаб, как у BigDecimal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money other)) {
+            return false;
+        }
+        return minorUnits == other.minorUnits && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
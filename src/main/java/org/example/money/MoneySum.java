@@ -0,0 +1,52 @@
+package org.example.money;
+
+import java.math.BigDecimal;
+
+/**
+ * Изменяемый накопитель суммы в минимальных единицах для циклов агрегации.
+ * Сложение меняет поля накопителя и не создает объектов; BigDecimal собирается один раз при выдаче результата.
+ * Накопитель не потокобезопасен: его защищает блокировка владельца или он принадлежит одной задаче.
+ */
+public final class MoneySum {
+
+    private long minorUnits;
+    private int scale;
+    private boolean empty = true;
+
+    /**
+     * Метод прибавляет сумму, уже переведенную в минимальные единицы
+     * @param units сумма в минимальных единицах
+     * @param unitsScale масштаб суммы при переводе в BigDecimal
+     */
+    public void add(long units, int unitsScale) {
+        minorUnits = Math.addExact(minorUnits, units);
+        scale = Math.max(scale, unitsScale);
+        empty = false;
+    }
+
+    public void add(BigDecimal amount) {
+        add(Money.toMinorUnits(amount), Money.displayScale(amount));
+    }
+
+    public void add(MoneySum other) {
+        if (!other.empty) {
+            add(other.minorUnits, other.scale);
+        }
+    }
+
+    /**
+     * Метод проверяет, было ли что-то прибавлено к накопителю
+     * @return {@code true}, если сумм не было
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public Money toMoney() {
+        return Money.ofMinor(minorUnits, scale);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return Money.toBigDecimal(minorUnits, scale);
+    }
+}
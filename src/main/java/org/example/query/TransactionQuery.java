@@ -0,0 +1,373 @@
+package org.example.query;
+
+import org.example.entity.Transaction;
+import org.example.enums.CategoryType;
+import org.example.enums.TransactionType;
+import org.example.history.HistorySummary;
+import org.example.history.HistoryView;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Структурированный фильтр транзакций.
+ * В отличие от произвольного Predicate, условия на тип, категорию, сумму и дату понятны движку запросов:
+ * по ним счет может быть пропущен целиком по сводке истории, период сужается двоичным поиском по дате,
+ * а остальные условия проверяются по колонкам истории без сборки транзакций.
+ * Произвольный Predicate ({@link #where(Predicate)}) проверяется последним и только для оставшихся строк.
+ */
+public sealed interface TransactionQuery {
+
+    /**
+     * Метод проверяет, могут ли в снимке истории быть подходящие транзакции
+     * @param history снимок истории
+     * @return {@code false}, если подходящих транзакций в снимке точно нет
+     */
+    boolean mayMatch(HistoryView history);
+
+    /**
+     * Метод проверяет транзакцию в позиции снимка
+     * @param history снимок истории
+     * @param index позиция транзакции
+     * @return {@code true}, если транзакция подходит
+     */
+    boolean matches(HistoryView history, int index);
+
+    /**
+     * Метод возвращает начало периода, вне которого запрос не может совпасть
+     * @return начало периода (включительно) или {@code null}, если период не ограничен снизу
+     */
+    LocalDateTime from();
+
+    /**
+     * Метод возвращает конец периода, вне которого запрос не может совпасть
+     * @return конец периода (не включительно) или {@code null}, если период не ограничен сверху
+     */
+    LocalDateTime to();
+
+    /**
+     * Метод возвращает условный вес проверки: условия по колонкам дешевле проверки собранной транзакции
+     */
+    int cost();
+
+    default TransactionQuery and(TransactionQuery other) {
+        return allOf(this, other);
+    }
+
+    default TransactionQuery or(TransactionQuery other) {
+        return anyOf(this, other);
+    }
+
+    /**
+     * Метод возвращает запрос, которому подходят все транзакции
+     */
+    static TransactionQuery all() {
+        return new And(List.of());
+    }
+
+    static TransactionQuery type(TransactionType... types) {
+        return new TypeIn(maskOf(types));
+    }
+
+    static TransactionQuery category(CategoryType... categories) {
+        return new CategoryIn(maskOf(categories));
+    }
+
+    /**
+     * Метод возвращает условие на сумму
+     * @param min наименьшая сумма (включительно) или {@code null}
+     * @param max наибольшая сумма (включительно) или {@code null}
+     */
+    static TransactionQuery amountBetween(BigDecimal min, BigDecimal max) {
+        return new AmountBetween(min, max);
+    }
+
+    /**
+     * Метод возвращает условие на дату
+     * @param from начало периода (включительно) или {@code null}
+     * @param to конец периода (не включительно) или {@code null}
+     */
+    static TransactionQuery dateBetween(LocalDateTime from, LocalDateTime to) {
+        return new DateBetween(from, to);
+    }
+
+    /**
+     * Метод возвращает условие, которое проверяется на собранной транзакции
+     * @param predicate условие
+     */
+    static TransactionQuery where(Predicate<Transaction> predicate) {
+        return new Where(predicate);
+    }
+
+    static TransactionQuery allOf(TransactionQuery... queries) {
+        return new And(byCost(queries));
+    }
+
+    static TransactionQuery anyOf(TransactionQuery... queries) {
+        return new Or(byCost(queries));
+    }
+
+    private static List<TransactionQuery> byCost(TransactionQuery[] queries) {
+        return Arrays.stream(queries).sorted(Comparator.comparingInt(TransactionQuery::cost)).toList();
+    }
+
+    private static int maskOf(Enum<?>[] values) {
+        int mask = 0;
+        for (Enum<?> value : values) {
+            mask |= 1 << value.ordinal();
+        }
+        return mask;
+    }
+
+    record TypeIn(int mask) implements TransactionQuery {
+        @Override
+        public boolean mayMatch(HistoryView history) {
+            return (history.summary().typeMask() & mask) != 0;
+        }
+
+        @Override
+        public boolean matches(HistoryView history, int index) {
+            return (mask & 1 << history.typeAt(index).ordinal()) != 0;
+        }
+
+        @Override
+        public LocalDateTime from() {
+            return null;
+        }
+
+        @Override
+        public LocalDateTime to() {
+            return null;
+        }
+
+        @Override
+        public int cost() {
+            return 0;
+        }
+    }
+
+    record CategoryIn(int mask) implements TransactionQuery {
+        @Override
+        public boolean mayMatch(HistoryView history) {
+            return (history.summary().categoryMask() & mask) != 0;
+        }
+
+        @Override
+        public boolean matches(HistoryView history, int index) {
+            CategoryType category = history.categoryAt(index);
+            return category != null && (mask & 1 << category.ordinal()) != 0;
+        }
+
+        @Override
+        public LocalDateTime from() {
+            return null;
+        }
+
+        @Override
+        public LocalDateTime to() {
+            return null;
+        }
+
+        @Override
+        public int cost() {
+            return 0;
+        }
+    }
+
+    record AmountBetween(BigDecimal min, BigDecimal max) implements TransactionQuery {
+        @Override
+        public boolean mayMatch(HistoryView history) {
+            HistorySummary summary = history.summary();
+            if (summary.minAmount() == null) {
+                return false;
+            }
+            return (min == null || summary.maxAmount().compareTo(min) >= 0)
+                    && (max == null || summary.minAmount().compareTo(max) <= 0);
+        }
+
+        @Override
+        public boolean matches(HistoryView history, int index) {
+            BigDecimal amount = history.amountAt(index);
+            return (min == null || amount.compareTo(min) >= 0) && (max == null || amount.compareTo(max) <= 0);
+        }
+
+        @Override
+        public LocalDateTime from() {
+            return null;
+        }
+
+        @Override
+        public LocalDateTime to() {
+            return null;
+        }
+
+        @Override
+        public int cost() {
+            return 1;
+        }
+    }
+
+    record DateBetween(LocalDateTime from, LocalDateTime to) implements TransactionQuery {
+        @Override
+        public boolean mayMatch(HistoryView history) {
+            if (history.isEmpty()) {
+                return false;
+            }
+            return (from == null || !history.dateAt(history.size() - 1).isBefore(from))
+                    && (to == null || history.dateAt(0).isBefore(to));
+        }
+
+        @Override
+        public boolean matches(HistoryView history, int index) {
+            LocalDateTime date = history.dateAt(index);
+            return (from == null || !date.isBefore(from)) && (to == null || date.isBefore(to));
+        }
+
+        @Override
+        public int cost() {
+            return 1;
+        }
+    }
+
+    record Where(Predicate<Transaction> predicate) implements TransactionQuery {
+        @Override
+        public boolean mayMatch(HistoryView history) {
+            return !history.isEmpty();
+        }
+
+        @Override
+        public boolean matches(HistoryView history, int index) {
+            return predicate.test(history.get(index));
+        }
+
+        @Override
+        public LocalDateTime from() {
+            return null;
+        }
+
+        @Override
+        public LocalDateTime to() {
+            return null;
+        }
+
+        @Override
+        public int cost() {
+            return 2;
+        }
+    }
+
+    record And(List<TransactionQuery> queries) implements TransactionQuery {
+        @Override
+        public boolean mayMatch(HistoryView history) {
+            if (history.isEmpty()) {
+                return false;
+            }
+            for (TransactionQuery query : queries) {
+                if (!query.mayMatch(history)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean matches(HistoryView history, int index) {
+            for (TransactionQuery query : queries) {
+                if (!query.matches(history, index)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public LocalDateTime from() {
+            LocalDateTime result = null;
+            for (TransactionQuery query : queries) {
+                LocalDateTime from = query.from();
+                if (from != null && (result == null || from.isAfter(result))) {
+                    result = from;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public LocalDateTime to() {
+            LocalDateTime result = null;
+            for (TransactionQuery query : queries) {
+                LocalDateTime to = query.to();
+                if (to != null && (result == null || to.isBefore(result))) {
+                    result = to;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int cost() {
+            return queries.stream().mapToInt(TransactionQuery::cost).max().orElse(0);
+        }
+    }
+
+    record Or(List<TransactionQuery> queries) implements TransactionQuery {
+        @Override
+        public boolean mayMatch(HistoryView history) {
+            for (TransactionQuery query : queries) {
+                if (query.mayMatch(history)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean matches(HistoryView history, int index) {
+            for (TransactionQuery query : queries) {
+                if (query.matches(history, index)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public LocalDateTime from() {
+            LocalDateTime result = null;
+            for (TransactionQuery query : queries) {
+                LocalDateTime from = query.from();
+                if (from == null) {
+                    return null;
+                }
+                if (result == null || from.isBefore(result)) {
+                    result = from;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public LocalDateTime to() {
+            LocalDateTime result = null;
+            for (TransactionQuery query : queries) {
+                LocalDateTime to = query.to();
+                if (to == null) {
+                    return null;
+                }
+                if (result == null || to.isAfter(result)) {
+                    result = to;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int cost() {
+            return queries.stream().mapToInt(TransactionQuery::cost).max().orElse(0);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.registry;
+
+import org.example.entity.BankAccount;
+import org.example.entity.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Реестр пользователей и счетов с поиском по идентификатору пользователя и номеру счета.
+ * Оба индекса разбиты на полосы: регистрация блокирует только полосу своего ключа, а поиск идет без блокировок,
+ * пока в ту же полосу никто не пишет. Записи индексов не хранят ключей и узлов, поэтому реестр рассчитан
+ * на десятки миллионов счетов; при известном объеме его стоит создавать с ожидаемым кол-вом счетов.
+ */
+public class AccountRegistry {
+
+    private final StripedHashIndex<BankAccount> accounts;
+    private final StripedHashIndex<User> users;
+
+    public AccountRegistry() {
+        this(1024);
+    }
+
+    /**
+     * Конструктор класса AccountRegistry
+     * @param expectedAccounts ожидаемое кол-во счетов
+     */
+    public AccountRegistry(int expectedAccounts) {
+        this(expectedAccounts, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Конструктор класса AccountRegistry
+     * @param expectedAccounts ожидаемое кол-во счетов
+     * @param concurrency ожидаемое кол-во потоков, одновременно регистрирующих счета
+     */
+    public AccountRegistry(int expectedAccounts, int concurrency) {
+        this.accounts = new StripedHashIndex<>(BankAccount::getAccountNumber, expectedAccounts, concurrency);
+        this.users = new StripedHashIndex<>(User::getId, expectedAccounts, concurrency);
+    }
+
+    /**
+     * Метод регистрирует пользователя вместе с его счетами.
+     * Регистрация проходит целиком или не проходит совсем: если номер хотя бы одного счета уже занят,
+     * занятые этим вызовом номера и сам пользователь снимаются с регистрации.
+     * @param user пользователь
+     * @throws IllegalArgumentException если пользователь с таким идентификатором или один из его счетов
+     * уже зарегистрирован
+     */
+    public void registerUser(User user) {
+        if (users.putIfAbsent(user) != null) {
+            throw new IllegalArgumentException("Пользователь " + user.getId() + " уже зарегистрирован");
+        }
+        List<BankAccount> userAccounts = user.getAccounts();
+        for (int i = 0; i < userAccounts.size(); i++) {
+            BankAccount account = userAccounts.get(i);
+            if (accounts.putIfAbsent(account) != null) {
+                for (int j = 0; j < i; j++) {
+                    accounts.remove(userAccounts.get(j).getAccountNumber());
+                }
+                users.remove(user.getId());
+                throw new IllegalArgumentException("Счет " + account.getAccountNumber() + " уже зарегистрирован");
+            }
+        }
+    }
+
+    /**
+     * Метод регистрирует существующий счет; владелец счета регистрируется, если его еще нет в реестре
+     * @param account счет
+     * @throws IllegalArgumentException если счет с таким номером уже зарегистрирован
+     */
+    public void registerAccount(BankAccount account) {
+        if (accounts.putIfAbsent(account) != null) {
+            throw new IllegalArgumentException("Счет " + account.getAccountNumber() + " уже зарегистрирован");
+        }
+        users.putIfAbsent(account.getOwner());
+    }
+
+    /**
+     * Метод создает новый счет пользователя и регистрирует его.
+     * Номер счета занимается в реестре до того, как счет попадет к пользователю, поэтому при гонке
+     * двух регистраций одного номера у пользователя не появится счет-дубликат.
+     * @param user владелец счета
+     * @param accountNumber номер счета
+     * @return созданный счет
+     * @throws IllegalArgumentException если счет с таким номером уже зарегистрирован
+     */
+    public BankAccount createAccount(User user, String accountNumber) {
+        BankAccount account = new BankAccount(accountNumber, user);
+        registerAccount(account);
+        user.addAccount(account);
+        return account;
+    }
+
+    /**
+     * Метод загружает пользователей и их счета пачкой, блокируя каждую полосу индексов один раз.
+     * Уже зарегистрированные пользователи и счета пропускаются.
+     * @param loaded пользователи
+     * @return кол-во пропущенных пользователей и счетов
+     */
+    public int loadUsers(Collection<User> loaded) {
+        List<BankAccount> loadedAccounts = new ArrayList<>(loaded.size());
+        for (User user : loaded) {
+            loadedAccounts.addAll(user.getAccounts());
+        }
+        return users.putAll(loaded) + accounts.putAll(loadedAccounts);
+    }
+
+    /**
+     * Метод ищет счет по номеру
+     * @param accountNumber номер счета
+     * @return счет или {@code null}, если счет не зарегистрирован
+     */
+    public BankAccount findAccount(String accountNumber) {
+        return accounts.get(accountNumber);
+    }
+
+    /**
+     * Метод ищет пользователя по идентификатору
+     * @param userId идентификатор пользователя
+     * @return пользователь или {@code null}, если пользователь не зарегистрирован
+     */
+    public User findUser(String userId) {
+        return users.get(userId);
+    }
+
+    /**
+     * Метод убирает счет из реестра; у владельца счет остается
+     * @param accountNumber номер счета
+     * @return убранный счет или {@code null}, если счет не был зарегистрирован
+     */
+    public BankAccount removeAccount(String accountNumber) {
+        return accounts.remove(accountNumber);
+    }
+
+    public long accountCount() {
+        return accounts.size();
+    }
+
+    public long userCount() {
+        return users.size();
+    }
+}
@@ -0,0 +1,319 @@
+package org.example.registry;
+
+import java.util.Collection;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Хеш-индекс по строковому ключу, разбитый на полосы с отдельной блокировкой.
+ * Внутри полосы используется открытая адресация с линейным пробированием: на запись приходится хеш ключа
+ * и ссылка на значение, без узлов и без хранения самого ключа, который берется из значения.
+ * Чтение идет оптимистично через StampedLock и не блокирует запись в другие полосы.
+ *
+ * @param <V> тип значения
+ */
+final class StripedHashIndex<V> {
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_STRIPE_CAPACITY = 16;
+    /**
+     * Хеш 0 означает пустую ячейку, поэтому настоящий хеш 0 заменяется этим значением
+     */
+    private static final int ZERO_HASH = 0x9E3779B9;
+
+    private final Function<V, String> keyOf;
+    private final Stripe<V>[] stripes;
+    private final int stripeShift;
+
+    /**
+     * Конструктор класса StripedHashIndex
+     * @param keyOf функция, возвращающая ключ значения
+     * @param expectedSize ожидаемое кол-во значений, чтобы не расширять таблицы при загрузке
+     * @param concurrency ожидаемое кол-во одновременно пишущих потоков
+     */
+    StripedHashIndex(Function<V, String> keyOf, int expectedSize, int concurrency) {
+        this.keyOf = keyOf;
+        int stripeCount = Integer.highestOneBit(Math.max(1, concurrency * 4 - 1)) << 1;
+        this.stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(stripeCount);
+        @SuppressWarnings("unchecked")
+        Stripe<V>[] created = (Stripe<V>[]) new Stripe<?>[stripeCount];
+        this.stripes = created;
+        int stripeCapacity = capacityFor(expectedSize / stripeCount + 1);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(keyOf, stripeCapacity);
+        }
+    }
+
+    /**
+     * Метод ищет значение по ключу
+     * @param key ключ
+     * @return значение или {@code null}, если ключа нет в индексе
+     */
+    V get(String key) {
+        int hash = hash(key);
+        Stripe<V> stripe = stripeOf(hash);
+
+        long stamp = stripe.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            V found = stripe.find(hash, key);
+            if (stripe.lock.validate(stamp)) {
+                return found;
+            }
+        }
+
+        stamp = stripe.lock.readLock();
+        try {
+            return stripe.find(hash, key);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Метод добавляет значение, если его ключа еще нет в индексе
+     * @param value значение
+     * @return значение, уже лежащее в индексе под тем же ключом, или {@code null}, если значение добавлено
+     */
+    V putIfAbsent(V value) {
+        String key = keyOf.apply(value);
+        int hash = hash(key);
+        Stripe<V> stripe = stripeOf(hash);
+
+        long stamp = stripe.lock.writeLock();
+        try {
+            return stripe.putIfAbsent(hash, key, value);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Метод добавляет пачку значений, блокируя каждую полосу один раз
+     * @param values значения
+     * @return кол-во значений, ключи которых уже были в индексе
+     */
+    int putAll(Collection<? extends V> values) {
+        Object[][] byStripe = new Object[stripes.length][];
+        int[] counts = new int[stripes.length];
+        int[] hashes = new int[values.size()];
+        int position = 0;
+        for (V value : values) {
+            int hash = hash(keyOf.apply(value));
+            hashes[position++] = hash;
+            counts[hash >>> stripeShift]++;
+        }
+
+        int[] fill = new int[stripes.length];
+        position = 0;
+        for (V value : values) {
+            int index = hashes[position++] >>> stripeShift;
+            if (byStripe[index] == null) {
+                byStripe[index] = new Object[counts[index]];
+            }
+            byStripe[index][fill[index]++] = value;
+        }
+
+        int duplicates = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            if (byStripe[i] == null) {
+                continue;
+            }
+            Stripe<V> stripe = stripes[i];
+            long stamp = stripe.lock.writeLock();
+            try {
+                stripe.ensureCapacity(stripe.size + byStripe[i].length);
+                for (Object element : byStripe[i]) {
+                    @SuppressWarnings("unchecked")
+                    V value = (V) element;
+                    String key = keyOf.apply(value);
+                    if (stripe.putIfAbsent(hash(key), key, value) != null) {
+                        duplicates++;
+                    }
+                }
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * Метод удаляет значение по ключу
+     * @param key ключ
+     * @return удаленное значение или {@code null}, если ключа не было
+     */
+    V remove(String key) {
+        int hash = hash(key);
+        Stripe<V> stripe = stripeOf(hash);
+
+        long stamp = stripe.lock.writeLock();
+        try {
+            return stripe.remove(hash, key);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Метод возвращает кол-во значений в индексе
+     * @return кол-во значений
+     */
+    long size() {
+        long size = 0;
+        for (Stripe<V> stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    private Stripe<V> stripeOf(int hash) {
+        return stripes[hash >>> stripeShift];
+    }
+
+    /**
+     * Метод перемешивает хеш строки, чтобы и старшие биты для выбора полосы, и младшие для ячейки были случайными
+     */
+    private static int hash(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        return hash != 0 ? hash : ZERO_HASH;
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = MIN_STRIPE_CAPACITY;
+        while (capacity * LOAD_FACTOR < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static void shiftBack(int[] hashes, Object[] values, int removed, int mask) {
+        int gap = removed;
+        int slot = (removed + 1) & mask;
+        while (hashes[slot] != 0) {
+            int home = hashes[slot] & mask;
+            boolean movable = gap <= slot ? home <= gap || home > slot : home <= gap && home > slot;
+            if (movable) {
+                hashes[gap] = hashes[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashes[gap] = 0;
+        values[gap] = null;
+    }
+
+    /**
+     * Полоса индекса: таблица с открытой адресацией под своей блокировкой
+     */
+    private static final class Stripe<V> {
+        private final StampedLock lock = new StampedLock();
+        private final Function<V, String> keyOf;
+        private int[] hashes;
+        private Object[] values;
+        private int size;
+
+        Stripe(Function<V, String> keyOf, int capacity) {
+            this.keyOf = keyOf;
+            this.hashes = new int[capacity];
+            this.values = new Object[capacity];
+        }
+
+        /**
+         * Метод ищет значение; при оптимистичном чтении таблица может меняться, поэтому поиск работает
+         * с локальными ссылками на массивы, ограничен их длиной и проверяется вызывающим через validate
+         */
+        @SuppressWarnings("unchecked")
+        V find(int hash, String key) {
+            int[] currentHashes = hashes;
+            Object[] currentValues = values;
+            int mask = Math.min(currentHashes.length, currentValues.length) - 1;
+            for (int probe = 0, slot = hash & mask; probe <= mask; probe++, slot = (slot + 1) & mask) {
+                int slotHash = currentHashes[slot];
+                if (slotHash == 0) {
+                    return null;
+                }
+                Object value = currentValues[slot];
+                if (slotHash == hash && value != null && key.equals(keyOf.apply((V) value))) {
+                    return (V) value;
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V putIfAbsent(int hash, String key, V value) {
+            int mask = hashes.length - 1;
+            int slot = hash & mask;
+            while (hashes[slot] != 0) {
+                if (hashes[slot] == hash && key.equals(keyOf.apply((V) values[slot]))) {
+                    return (V) values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (size + 1 > hashes.length * LOAD_FACTOR) {
+                ensureCapacity(size + 1);
+                return putIfAbsent(hash, key, value);
+            }
+            values[slot] = value;
+            hashes[slot] = hash;
+            size++;
+            return null;
+        }
+
+        /**
+         * Метод удаляет запись со сдвигом следующих записей цепочки назад, поэтому таблице не нужны метки удаления.
+         * Оптимистичный читатель может увидеть таблицу посреди сдвига, но тогда validate не пройдет и поиск
+         * повторится под блокировкой чтения.
+         */
+        @SuppressWarnings("unchecked")
+        V remove(int hash, String key) {
+            int mask = hashes.length - 1;
+            int slot = hash & mask;
+            while (hashes[slot] != 0) {
+                if (hashes[slot] == hash && key.equals(keyOf.apply((V) values[slot]))) {
+                    V removed = (V) values[slot];
+                    shiftBack(hashes, values, slot, mask);
+                    size--;
+                    return removed;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Метод расширяет таблицу, перенося записи в новые массивы
+         */
+        void ensureCapacity(int required) {
+            if (required <= hashes.length * LOAD_FACTOR) {
+                return;
+            }
+            int capacity = capacityFor(required);
+            int[] newHashes = new int[capacity];
+            Object[] newValues = new Object[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < hashes.length; i++) {
+                if (hashes[i] == 0) {
+                    continue;
+                }
+                int slot = hashes[i] & mask;
+                while (newHashes[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newHashes[slot] = hashes[i];
+                newValues[slot] = values[i];
+            }
+            values = newValues;
+            hashes = newHashes;
+        }
+    }
+
+}
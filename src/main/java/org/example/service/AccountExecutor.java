@@ -0,0 +1,187 @@
+package org.example.service;
+
+import org.example.entity.BankAccount;
+import org.example.enums.CategoryType;
+
+import java.math.BigDecimal;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Асинхронное выполнение операций над счетами на виртуальных потоках.
+ * У каждого счета, по которому есть невыполненные операции, есть почтовый ящик: операции становятся в его очередь,
+ * а выполняет их по одной единственный виртуальный поток ящика. Поэтому операции одного счета идут строго
+ * в порядке поступления и не ждут блокировку счета, паркуя поток-носитель, а операции разных счетов выполняются
+ * параллельно. Ящик существует, только пока у счета есть операции в очереди, и удаляется вместе с последней.
+ */
+public class AccountExecutor implements AutoCloseable {
+
+    private final AnalyticsService analyticsService;
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<BankAccount, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор класса AccountExecutor
+     * @param analyticsService сервис, через который проводятся платежи
+     */
+    public AccountExecutor(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Метод ставит в очередь пополнение счета
+     * @param account счет
+     * @param amount сумма пополнения
+     * @return future, которое завершается после пополнения или с ошибкой валидации
+     */
+    public CompletableFuture<Void> deposit(BankAccount account, BigDecimal amount) {
+        return submit(account, () -> {
+            account.deposit(amount);
+            return null;
+        });
+    }
+
+    /**
+     * Метод ставит в очередь снятие со счета
+     * @param account счет
+     * @param amount сумма снятия
+     * @return future, которое завершается после снятия или с ошибкой валидации
+     */
+    public CompletableFuture<Void> withdraw(BankAccount account, BigDecimal amount) {
+        return submit(account, () -> {
+            account.withdraw(amount);
+            return null;
+        });
+    }
+
+    /**
+     * Метод ставит в очередь платеж
+     * @param account счет источник
+     * @param category категория платежа
+     * @param amount сумма платежа
+     * @return future, которое завершается после платежа или с ошибкой валидации
+     */
+    public CompletableFuture<Void> payment(BankAccount account, CategoryType category, BigDecimal amount) {
+        return submit(account, () -> {
+            analyticsService.payment(account, category, amount);
+            return null;
+        });
+    }
+
+    /**
+     * Метод ставит в очередь счета произвольную операцию
+     * @param account счет, с операциями которого новая операция не должна пересекаться
+     * @param operation операция
+     * @return future с результатом операции
+     * @param <T> тип результата
+     */
+    public <T> CompletableFuture<T> submit(BankAccount account, Callable<T> operation) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Исполнитель операций закрыт");
+        }
+        Task<T> task = new Task<>(operation);
+        boolean[] created = new boolean[1];
+        Mailbox mailbox = mailboxes.compute(account, (key, current) -> {
+            Mailbox target = current;
+            if (target == null) {
+                target = new Mailbox();
+                created[0] = true;
+            }
+            target.queue.add(task);
+            target.pending++;
+            return target;
+        });
+        if (created[0]) {
+            try {
+                executor.execute(() -> drain(account, mailbox));
+            } catch (RejectedExecutionException e) {
+                // операции, которые другие отправители успели положить в ящик, больше некому выполнить
+                mailboxes.remove(account, mailbox);
+                for (Task<?> queued = mailbox.queue.poll(); queued != null; queued = mailbox.queue.poll()) {
+                    queued.fail(e);
+                }
+                throw e;
+            }
+        }
+        return task.result;
+    }
+
+    /**
+     * Метод возвращает кол-во счетов, по которым есть невыполненные операции
+     * @return кол-во почтовых ящиков
+     */
+    public int activeAccounts() {
+        return mailboxes.size();
+    }
+
+    /**
+     * Метод перестает принимать операции и ждет выполнения уже поставленных
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * Метод выполняет операции ящика, пока очередь не опустеет.
+     * Счетчик операций меняется под блокировкой ячейки ящика в ConcurrentHashMap, поэтому ящик удаляется
+     * из map ровно тогда, когда в него больше никто не может положить операцию мимо этого потока.
+     */
+    private void drain(BankAccount account, Mailbox mailbox) {
+        while (true) {
+            mailbox.queue.poll().run();
+            Mailbox remaining = mailboxes.computeIfPresent(account, (key, current) -> {
+                current.pending--;
+                return current.pending == 0 ? null : current;
+            });
+            if (remaining == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Почтовый ящик счета. Счетчик pending меняется только под блокировкой ячейки ConcurrentHashMap;
+     * новый ящик появляется вместе с первой операцией, и именно ее отправитель запускает для него поток.
+     */
+    private static final class Mailbox {
+        private final Queue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+        private int pending;
+    }
+
+    /**
+     * Операция в очереди ящика вместе с future, через которое отправитель получает ее результат
+     */
+    private static final class Task<T> implements Runnable {
+        private final Callable<T> operation;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Task(Callable<T> operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result.complete(operation.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Метод завершает операцию с ошибкой, не выполняя ее
+         * @param cause причина
+         */
+        private void fail(Throwable cause) {
+            result.completeExceptionally(cause);
+        }
+    }
+}
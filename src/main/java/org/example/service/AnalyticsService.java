@@ -1,24 +1,64 @@
 package org.example.service;
 
+import org.example.dto.PaymentBatchResult;
+import org.example.dto.PaymentRejection;
+import org.example.dto.PaymentRequest;
 import org.example.entity.BankAccount;
 import org.example.entity.Transaction;
 import org.example.entity.User;
 import org.example.enums.CategoryType;
+import org.example.enums.SpendingWindow;
 import org.example.enums.TransactionType;
+import org.example.history.CategoryTotals;
+import org.example.history.HistoryView;
+import org.example.metrics.Metrics;
+import org.example.metrics.Operation;
+import org.example.money.Money;
 import org.example.validators.TransferValidator;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static org.example.validators.TransactionValidator.*;
 
 public class AnalyticsService {
 
-    TransferValidator transferValidator = new TransferValidator();
+    /**
+     * Начальная емкость кучи топ-N: N может быть сколь угодно большим, а куча растет по мере отбора платежей
+     */
+    static final int TOP_N_INITIAL_CAPACITY = 64;
+
+    /**
+     * Часы, по которым определяется текущий день для окон трат
+     */
+    private final Clock clock;
+    private final TransferValidator transferValidator = new TransferValidator();
+
+    public AnalyticsService() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Конструктор класса AnalyticsService
+     *
+     * @param clock часы, по которым определяется текущий день для окон трат
+     */
+    public AnalyticsService(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Метод возвращает текущий день по часам сервиса
+     *
+     * @return текущий день
+     */
+    LocalDate today() {
+        return LocalDate.now(clock);
+    }
 
-    LocalDateTime dateTimeMonthAgo = LocalDateTime.now().minusMonths(1);
     /**
      * Метод создает новый счет
      *
@@ -38,58 +78,262 @@ public class AnalyticsService {
      * @param amount сумма денег при платеже
      */
     public void payment(BankAccount source, String category, BigDecimal amount) {
-        transferValidator.checkTransfer(source, amount);
+        CategoryType categoryType = CategoryType.fromName(category);
+        if (categoryType == null) {
+            throw new IllegalArgumentException("Неизвестная категория платежа: " + category);
+        }
+        payment(source, categoryType, amount);
+    }
 
-        source.withdraw(amount);
+    /**
+     * Метод создает новый платеж
+     *
+     * @param source счет источник
+     * @param category категория платежа
+     * @param amount сумма денег при платеже
+     */
+    public void payment(BankAccount source, CategoryType category, BigDecimal amount) {
+        source.payment(amount, category);
+    }
+
+    /**
+     * Метод проводит пачку платежей по одному счету.
+     * Платежи проверяются по очереди относительно остатка после предыдущих, баланс меняется один раз,
+     * а транзакции дописываются в историю одним расширением массива. Ошибочные платежи не прерывают пачку,
+     * а попадают в список отказов.
+     *
+     * @param source счет источник
+     * @param requests платежи пачки
+     * @return проведенные платежи и отказы по остальным
+     */
+    public PaymentBatchResult paymentsBatch(BankAccount source, List<PaymentRequest> requests) {
+        long start = Metrics.start();
+        try {
+            if (source == null || requests == null || requests.isEmpty()) {
+                return new PaymentBatchResult(List.of(), List.of());
+            }
+
+            List<Transaction> payments = new ArrayList<>(requests.size());
+            List<Transaction> records = new ArrayList<>(requests.size() * 2);
+            List<PaymentRejection> rejections = new ArrayList<>();
+
+            Runnable publication = source.withLock(() -> {
+                Money available = source.getBalanceMoney();
+                Money total = Money.ZERO;
+
+                for (int i = 0; i < requests.size(); i++) {
+                    PaymentRequest request = requests.get(i);
+                    String reason = getRejectionReason(request, available);
+                    if (reason != null) {
+                        rejections.add(new PaymentRejection(i, request, reason));
+                        continue;
+                    }
+
+                    BigDecimal amount = request.getAmount();
+                    Money money = Money.of(amount);
+                    Transaction payment = new Transaction(amount, TransactionType.PAYMENT,
+                            CategoryType.fromName(request.getCategory()), source, null);
+                    payments.add(payment);
+                    records.add(payment);
+                    records.add(new Transaction(amount, TransactionType.WITHDRAWAL, null, source, null));
 
-        Transaction transaction = new Transaction(amount, TransactionType.PAYMENT, CategoryType.valueOf(category), source, null);
+                    available = available.subtract(money);
+                    total = total.add(money);
+                }
 
-        source.addTransaction(transaction);
+                return records.isEmpty() ? null : source.applyPayments(records, total);
+            });
+            if (publication != null) {
+                publication.run();
+            }
+            Metrics.reject(Operation.PAYMENTS_BATCH, rejections.size());
+            return new PaymentBatchResult(payments, rejections);
+        } finally {
+            Metrics.stop(Operation.PAYMENTS_BATCH, start);
+        }
+    }
+
+    /**
+     * Метод проверяет платеж из пачки
+     *
+     * @param request платеж
+     * @param available остаток на счете с учетом предыдущих платежей пачки
+     * @return причина отказа или {@code null}, если платеж можно провести
+     */
+    private String getRejectionReason(PaymentRequest request, Money available) {
+        if (request == null || request.getAmount() == null) {
+            return "Платеж не заполнен";
+        }
+        if (!isValidCategory(request.getCategory())) {
+            return "Неизвестная категория платежа";
+        }
+        String reason = transferValidator.getAmountRejection(request.getAmount());
+        return reason != null ? reason : transferValidator.getBalanceRejection(available, request.getAmount());
     }
 
     /**
      * Метод возвращает сумму потраченных средств на указанную категорию за последний месяц.
+     * Окно считается по дням: платежи за день, в который начинается месяц, учитываются целиком.
      *
      * @param bankAccount счет в банке
      * @param category категория по платежу
      * @return сумма потраченных средств по категории за последний месяц
      */
     public BigDecimal getMonthlySpendingByCategory(BankAccount bankAccount, String category) {
+        return getSpendingByCategory(bankAccount, category, SpendingWindow.LAST_MONTH);
+    }
+
+    /**
+     * Метод возвращает сумму потраченных средств на указанную категорию за последний месяц
+     *
+     * @param bankAccount счет в банке
+     * @param category категория по платежу
+     * @return сумма потраченных средств по категории за последний месяц
+     */
+    public BigDecimal getMonthlySpendingByCategory(BankAccount bankAccount, CategoryType category) {
+        return getSpendingByCategory(bankAccount, category, SpendingWindow.LAST_MONTH);
+    }
 
-        if (!isValidCategory(category) || bankAccount == null) {
+    /**
+     * Метод возвращает сумму потраченных средств на указанную категорию за окно, заканчивающееся текущим днем.
+     * Текущий день берется из часов сервиса при каждом вызове, поэтому окно не устаревает.
+     *
+     * @param bankAccount счет в банке
+     * @param category категория по платежу
+     * @param window окно трат
+     * @return сумма потраченных средств по категории за окно
+     */
+    public BigDecimal getSpendingByCategory(BankAccount bankAccount, String category, SpendingWindow window) {
+        CategoryType categoryType = CategoryType.fromName(category);
+        if (categoryType == null) {
             return BigDecimal.ZERO;
         }
+        return getSpendingByCategory(bankAccount, categoryType, window);
+    }
+
+    /**
+     * Метод возвращает сумму потраченных средств на указанную категорию за окно, заканчивающееся текущим днем
+     *
+     * @param bankAccount счет в банке
+     * @param category категория по платежу
+     * @param window окно трат
+     * @return сумма потраченных средств по категории за окно
+     */
+    public BigDecimal getSpendingByCategory(BankAccount bankAccount, CategoryType category, SpendingWindow window) {
+        long start = Metrics.start();
+        try {
+            if (category == null || bankAccount == null || window == null) {
+                return BigDecimal.ZERO;
+            }
+
+            LocalDate today = today();
+            BigDecimal spending = bankAccount.getSpending(category, window.start(today), today);
 
-        return bankAccount.getTransactions().stream()
-                .filter(transaction -> TransactionType.PAYMENT.equals(transaction.getType()))
-                .filter(transaction -> category.equals(transaction.getCategory().name()))
-                .filter(transaction -> transaction.getDate().isAfter(dateTimeMonthAgo))
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            return spending != null ? spending : BigDecimal.ZERO;
+        } finally {
+            Metrics.stop(Operation.SPENDING_BY_CATEGORY, start);
+        }
     }
 
     /**
      * Метод возвращает Map, где ключом является категория, а значением — сумма потраченных средств за последний месяц.
+     * Окно считается по дням, как и в {@link #getMonthlySpendingByCategory(BankAccount, String)}.
      *
      * @param user пользователь
      * @param categories категории
      * @return Map, где ключом является категория, а значением — сумма потраченных средств
      */
     public Map<String, BigDecimal> getMonthlySpendingByCategories(User user, Set<String> categories) {
+        return getSpendingByCategories(user, categories, SpendingWindow.LAST_MONTH);
+    }
+
+    /**
+     * Метод возвращает EnumMap, где ключом является категория, а значением — сумма потраченных средств
+     * за последний месяц
+     *
+     * @param user пользователь
+     * @param categories категории
+     * @return EnumMap категорий, по которым были платежи
+     */
+    public EnumMap<CategoryType, BigDecimal> getMonthlySpendingByCategoryTypes(User user, Set<CategoryType> categories) {
+        return getSpendingByCategoryTypes(user, categories, SpendingWindow.LAST_MONTH);
+    }
+
+    /**
+     * Метод возвращает Map, где ключом является категория, а значением — сумма потраченных средств за окно
+     *
+     * @param user пользователь
+     * @param categories категории
+     * @param window окно трат
+     * @return Map, где ключом является категория, а значением — сумма потраченных средств
+     */
+    public Map<String, BigDecimal> getSpendingByCategories(User user, Set<String> categories, SpendingWindow window) {
         Map<String, BigDecimal> resultMap = new HashMap<>();
 
-        if (user == null || !isValidCategories(categories)) {
+        if (!isValidCategories(categories)) {
             return resultMap;
         }
 
-        return user.getAccounts().stream()
-                .flatMap(bankAccount -> bankAccount.getTransactions().stream())
-                .filter(transaction -> TransactionType.PAYMENT.equals(transaction.getType()))
-                .filter(transaction -> transaction.getDate().isAfter(dateTimeMonthAgo))
-                .filter(transaction -> categories.contains(String.valueOf(transaction.getCategory())))
-                .collect(Collectors.groupingBy(
-                        transaction -> String.valueOf(transaction.getCategory()),
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)));
+        getSpendingByCategoryTypes(user, toCategoryTypes(categories), window)
+                .forEach((category, sum) -> resultMap.put(category.name(), sum));
+        return resultMap;
+    }
+
+    /**
+     * Метод возвращает EnumMap, где ключом является категория, а значением — сумма потраченных средств за окно.
+     * Суммы копятся в массивах по порядковому номеру категории и переводятся в BigDecimal один раз.
+     *
+     * @param user пользователь
+     * @param categories категории
+     * @param window окно трат
+     * @return EnumMap категорий, по которым были платежи в окне
+     */
+    public EnumMap<CategoryType, BigDecimal> getSpendingByCategoryTypes(User user, Set<CategoryType> categories,
+                                                                       SpendingWindow window) {
+        long start = Metrics.start();
+        try {
+            if (user == null || categories == null || categories.isEmpty() || window == null) {
+                return new EnumMap<>(CategoryType.class);
+            }
+
+            LocalDate today = today();
+            CategoryTotals totals = new CategoryTotals();
+            collectSpending(user, categories, window.start(today), today, totals);
+            return totals.toEnumMap();
+        } finally {
+            Metrics.stop(Operation.SPENDING_BY_CATEGORIES, start);
+        }
+    }
+
+    /**
+     * Метод добавляет траты пользователя за дни [from, to] к частичному итогу по категориям.
+     * Суммы складываются в копейках, без промежуточных BigDecimal.
+     *
+     * @param user пользователь
+     * @param categoryTypes категории
+     * @param from первый день окна
+     * @param to последний день окна
+     * @param target частичный итог, в который складываются суммы
+     */
+    void collectSpending(User user, Set<CategoryType> categoryTypes, LocalDate from, LocalDate to,
+                         CategoryTotals target) {
+        for (BankAccount bankAccount : user.getAccounts()) {
+            bankAccount.collectSpending(categoryTypes, from, to, target);
+        }
+    }
+
+    /**
+     * Метод переводит проверенные названия категорий в набор CategoryType
+     *
+     * @param categories названия категорий
+     * @return набор категорий
+     */
+    static Set<CategoryType> toCategoryTypes(Set<String> categories) {
+        Set<CategoryType> categoryTypes = EnumSet.noneOf(CategoryType.class);
+        for (String category : categories) {
+            categoryTypes.add(CategoryType.fromName(category));
+        }
+        return categoryTypes;
     }
 
     /**
@@ -111,39 +355,192 @@ public class AnalyticsService {
      */
     public LinkedHashMap<String, List<Transaction>> getTransactionHistorySortedByAmount(User user) {
         LinkedHashMap<String, List<Transaction>> resultMap = new LinkedHashMap<>();
+        getPaymentsByCategorySortedByAmount(user)
+                .forEach((category, payments) -> resultMap.put(category.name(), payments));
+        return resultMap;
+    }
+
+    /**
+     * Метод возвращает EnumMap, где ключом является категория, а значением — платежи,
+     * отсортированные по сумме от наибольшей к наименьшей.
+     * Платежи раскладываются по спискам в массиве по порядковому номеру категории; тип и категория читаются
+     * из истории без сборки транзакций, поэтому объекты создаются только для платежей.
+     *
+     * @param user пользователь
+     * @return EnumMap категорий, по которым были платежи
+     */
+    public EnumMap<CategoryType, List<Transaction>> getPaymentsByCategorySortedByAmount(User user) {
+        long start = Metrics.start();
+        try {
+            EnumMap<CategoryType, List<Transaction>> resultMap = new EnumMap<>(CategoryType.class);
+
+            if (!hasUserAccountsWithTransactions(user)) {
+                return resultMap;
+            }
+
+            for (BankAccount bankAccount : user.getAccounts()) {
+                HistoryView history = bankAccount.getTransactions();
+                for (int i = 0; i < history.size(); i++) {
+                    CategoryType category = history.categoryAt(i);
+                    if (!TransactionType.PAYMENT.equals(history.typeAt(i)) || category == null) {
+                        continue;
+                    }
+                    resultMap.computeIfAbsent(category, key -> new ArrayList<>()).add(history.get(i));
+                }
+            }
 
-        if (!hasUserAccountsWithTransactions(user)) {
+            for (List<Transaction> payments : resultMap.values()) {
+                payments.sort(new TransactionAmountComparator());
+            }
             return resultMap;
+        } finally {
+            Metrics.stop(Operation.PAYMENTS_SORTED_BY_AMOUNT, start);
         }
+    }
 
-        return user.getAccounts().stream()
-                .flatMap(bankAccount -> bankAccount.getTransactions().stream())
-                .filter(transaction -> TransactionType.PAYMENT.equals(transaction.getType()))
-                .sorted(Comparator.comparing(Transaction::getAmount))
-                .collect(Collectors.groupingBy(transaction -> transaction.getCategory().toString(),
-                        LinkedHashMap::new, Collectors.toList()));
+    /**
+     * Метод возвращает страницу платежей каждой категории, отсортированных по сумме от наибольшей к наименьшей.
+     * Для каждой категории держится куча не больше чем из offset + limit платежей, поэтому память и сортировка
+     * зависят от размера страницы, а не от длины истории.
+     *
+     * @param user пользователь
+     * @param offset кол-во пропускаемых платежей в каждой категории
+     * @param limit наибольшее кол-во платежей на странице каждой категории
+     * @return EnumMap категорий, у которых страница не пуста
+     */
+    public EnumMap<CategoryType, List<Transaction>> getPaymentsByCategorySortedByAmount(User user, int offset,
+                                                                                       int limit) {
+        return getPaymentPages(user, EnumSet.allOf(CategoryType.class), offset, limit);
     }
 
     /**
-     * Метод возвращает последние N транзакций пользователя
+     * Метод возвращает страницу платежей одной категории, отсортированных по сумме от наибольшей к наименьшей
+     *
+     * @param user пользователь
+     * @param category категория платежа
+     * @param offset кол-во пропускаемых платежей
+     * @param limit наибольшее кол-во платежей на странице
+     * @return платежи страницы
+     */
+    public List<Transaction> getPaymentsSortedByAmount(User user, CategoryType category, int offset, int limit) {
+        if (category == null) {
+            return new ArrayList<>();
+        }
+        return getPaymentPages(user, EnumSet.of(category), offset, limit).getOrDefault(category, new ArrayList<>());
+    }
+
+    private EnumMap<CategoryType, List<Transaction>> getPaymentPages(User user, Set<CategoryType> categories,
+                                                                   int offset, int limit) {
+        long start = Metrics.start();
+        try {
+            EnumMap<CategoryType, List<Transaction>> resultMap = new EnumMap<>(CategoryType.class);
+
+            if (!hasUserAccountsWithTransactions(user) || offset < 0 || limit <= 0) {
+                return resultMap;
+            }
+
+            int pageEnd = (int) Math.min(Integer.MAX_VALUE - 8, (long) offset + limit);
+            EnumMap<CategoryType, PriorityQueue<Transaction>> smallestOnTop = new EnumMap<>(CategoryType.class);
+            for (BankAccount bankAccount : user.getAccounts()) {
+                HistoryView history = bankAccount.getTransactions();
+                for (int i = 0; i < history.size(); i++) {
+                    CategoryType category = history.categoryAt(i);
+                    if (!TransactionType.PAYMENT.equals(history.typeAt(i)) || !categories.contains(category)) {
+                        continue;
+                    }
+                    PriorityQueue<Transaction> heap = smallestOnTop.computeIfAbsent(category,
+                            key -> new PriorityQueue<>(Comparator.comparing(Transaction::getAmount)));
+                    if (heap.size() < pageEnd) {
+                        heap.add(history.get(i));
+                    } else if (history.amountAt(i).compareTo(heap.peek().getAmount()) > 0) {
+                        heap.poll();
+                        heap.add(history.get(i));
+                    }
+                }
+            }
+
+            for (Map.Entry<CategoryType, PriorityQueue<Transaction>> entry : smallestOnTop.entrySet()) {
+                PriorityQueue<Transaction> heap = entry.getValue();
+                if (heap.size() <= offset) {
+                    continue;
+                }
+                List<Transaction> payments = new ArrayList<>(heap);
+                payments.sort(new TransactionAmountComparator());
+                resultMap.put(entry.getKey(), new ArrayList<>(payments.subList(offset, payments.size())));
+            }
+            return resultMap;
+        } finally {
+            Metrics.stop(Operation.PAYMENTS_SORTED_BY_AMOUNT, start);
+        }
+    }
+
+    /**
+     * Метод возвращает последние N транзакций пользователя.
+     * Истории счетов уже упорядочены по дате, поэтому их хвосты сливаются через кучу размером с число счетов.
      *
      * @param user пользователь
      * @param n N транзакций пользователя
      * @return список последних N транзакций пользователя
      */
     public List<Transaction> getLastNTransactions(User user, int n) {
-        List<Transaction> listResult = new ArrayList<>();
+        long start = Metrics.start();
+        try {
+            List<Transaction> listResult = new ArrayList<>();
 
-        if (!hasUserAccountsWithTransactions(user)) {
+            if (!hasUserAccountsWithTransactions(user) || n <= 0) {
+                return listResult;
+            }
+
+            PriorityQueue<TailCursor> heap = new PriorityQueue<>();
+            for (BankAccount bankAccount : user.getAccounts()) {
+                List<Transaction> tail = bankAccount.latest(n);
+                if (!tail.isEmpty()) {
+                    heap.add(new TailCursor(tail));
+                }
+            }
+
+            while (listResult.size() < n && !heap.isEmpty()) {
+                TailCursor cursor = heap.poll();
+                listResult.add(cursor.current());
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
             return listResult;
+        } finally {
+            Metrics.stop(Operation.LAST_N_TRANSACTIONS, start);
+        }
+    }
+
+    /**
+     * Курсор по хвосту истории счета, начиная с самой новой транзакции
+     */
+    private static class TailCursor implements Comparable<TailCursor> {
+        private final List<Transaction> tail;
+        private int position;
+        private Transaction current;
+
+        TailCursor(List<Transaction> tail) {
+            this.tail = tail;
+            this.current = tail.getFirst();
+        }
+
+        Transaction current() {
+            return current;
         }
 
-        return user.getAccounts().stream()
-                .flatMap(bankAccount -> bankAccount.getTransactions().stream())
-                .sorted(Comparator.comparing(Transaction::getDate).reversed())
-                .limit(n)
-                .collect(Collectors.toList());
+        boolean advance() {
+            if (++position >= tail.size()) {
+                return false;
+            }
+            current = tail.get(position);
+            return true;
+        }
 
+        @Override
+        public int compareTo(TailCursor other) {
+            return other.current().getDate().compareTo(current().getDate());
+        }
     }
 
     /**
@@ -154,17 +551,71 @@ public class AnalyticsService {
      * @return PriorityQueue, содержащую топ-N самых больших транзакций
      */
     public PriorityQueue<Transaction> getTopNLargestTransactions(User user, int n) {
-        PriorityQueue<Transaction> queueAllPayments = new PriorityQueue<>(new TransactionAmountComparator());
+        return getTopNLargestTransactions(user, n, null, null, null);
+    }
+
+    /**
+     * Метод возвращает PriorityQueue, содержащую топ-N самых больших платежей за период и по категории.
+     * Платежи просматриваются за один проход, при этом в памяти держится куча не больше чем из N элементов.
+     *
+     * @param user пользователь
+     * @param n кол-во транзакций
+     * @param from начало периода (включительно) или {@code null}, если период не ограничен снизу
+     * @param to конец периода (не включительно) или {@code null}, если период не ограничен сверху
+     * @param category категория платежа или {@code null}, если фильтр по категории не нужен
+     * @return PriorityQueue, содержащую топ-N самых больших транзакций, начиная с наибольшей
+     */
+    public PriorityQueue<Transaction> getTopNLargestTransactions(User user, int n, LocalDateTime from,
+                                                                 LocalDateTime to, String category) {
+        long start = Metrics.start();
+        try {
+            PriorityQueue<Transaction> queueTopPayments = new PriorityQueue<>(new TransactionAmountComparator());
 
-        if (!hasUserAccountsWithTransactions(user)) {
-            return queueAllPayments;
+            CategoryType categoryType = CategoryType.fromName(category);
+            if (!hasUserAccountsWithTransactions(user) || n <= 0 || (category != null && categoryType == null)) {
+                return queueTopPayments;
+            }
+
+            LocalDateTime windowFrom = from != null ? from : LocalDateTime.MIN;
+            LocalDateTime windowTo = to != null ? to : LocalDateTime.MAX;
+
+            PriorityQueue<Transaction> smallestOnTop = new PriorityQueue<>(Math.min(n, TOP_N_INITIAL_CAPACITY),
+                    Comparator.comparing(Transaction::getAmount));
+            collectTopN(user, n, windowFrom, windowTo, categoryType, smallestOnTop);
+
+            queueTopPayments.addAll(smallestOnTop);
+            return queueTopPayments;
+        } finally {
+            Metrics.stop(Operation.TOP_N_TRANSACTIONS, start);
         }
+    }
 
-        return user.getAccounts().stream()
-                .flatMap(bankAccount -> bankAccount.getTransactions().stream())
-                .filter(transaction -> TransactionType.PAYMENT.equals(transaction.getType()))
-                .sorted(Comparator.comparing(Transaction::getAmount).reversed())
-                .limit(n)
-                .collect(Collectors.toCollection(() -> new PriorityQueue<>(Comparator.comparing(Transaction::getAmount).reversed())));
+    /**
+     * Метод добавляет платежи пользователя в кучу топ-N, на вершине которой лежит наименьший из отобранных платежей
+     *
+     * @param user пользователь
+     * @param n кол-во транзакций
+     * @param from начало периода (включительно)
+     * @param to конец периода (не включительно)
+     * @param categoryType категория платежа или {@code null}
+     * @param smallestOnTop куча отобранных платежей размером не больше N
+     */
+    void collectTopN(User user, int n, LocalDateTime from, LocalDateTime to, CategoryType categoryType,
+                     PriorityQueue<Transaction> smallestOnTop) {
+        for (BankAccount bankAccount : user.getAccounts()) {
+            HistoryView window = bankAccount.transactionsBetween(from, to);
+            for (int i = 0; i < window.size(); i++) {
+                if (!TransactionType.PAYMENT.equals(window.typeAt(i))
+                        || (categoryType != null && categoryType != window.categoryAt(i))) {
+                    continue;
+                }
+                if (smallestOnTop.size() < n) {
+                    smallestOnTop.add(window.get(i));
+                } else if (window.amountAt(i).compareTo(smallestOnTop.peek().getAmount()) > 0) {
+                    smallestOnTop.poll();
+                    smallestOnTop.add(window.get(i));
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,240 @@
+package org.example.service;
+
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.enums.CategoryType;
+import org.example.enums.SpendingWindow;
+import org.example.history.CategoryTotals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static org.example.validators.TransactionValidator.isValidCategories;
+
+/**
+ * Аналитика сразу по множеству пользователей.
+ * Пользователи делятся на отрезки, которые обрабатываются задачами ForkJoinPool. Каждая задача копит
+ * собственный частичный итог, а итоги соседних задач сливаются при возврате из рекурсии, поэтому потоки
+ * не делят между собой изменяемое состояние.
+ */
+public class BulkAnalyticsService implements AutoCloseable {
+
+    /**
+     * Меньше этого числа пользователей отрезок не делится: накладные расходы на задачу станут заметнее самой работы
+     */
+    private static final int MIN_USERS_PER_TASK = 256;
+    /**
+     * Кол-во отрезков на один поток, чтобы потоки, закончившие раньше, могли забрать чужую работу
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final AnalyticsService analyticsService;
+    private final ForkJoinPool pool;
+
+    public BulkAnalyticsService(AnalyticsService analyticsService) {
+        this(analyticsService, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Конструктор класса BulkAnalyticsService
+     *
+     * @param analyticsService сервис, выполняющий расчет по одному пользователю
+     * @param parallelism кол-во потоков пула
+     */
+    public BulkAnalyticsService(AnalyticsService analyticsService, int parallelism) {
+        this.analyticsService = analyticsService;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Метод возвращает Map, где ключом является категория, а значением — сумма, потраченная всеми пользователями
+     * за последний месяц
+     *
+     * @param users пользователи
+     * @param categories категории
+     * @return Map, где ключом является категория, а значением — сумма потраченных средств
+     */
+    public Map<String, BigDecimal> getMonthlySpendingByCategories(Collection<User> users, Set<String> categories) {
+        return getSpendingByCategories(users, categories, SpendingWindow.LAST_MONTH);
+    }
+
+    /**
+     * Метод возвращает Map, где ключом является категория, а значением — сумма, потраченная всеми пользователями
+     * за окно
+     *
+     * @param users пользователи
+     * @param categories категории
+     * @param window окно трат
+     * @return Map, где ключом является категория, а значением — сумма потраченных средств
+     */
+    public Map<String, BigDecimal> getSpendingByCategories(Collection<User> users, Set<String> categories,
+                                                           SpendingWindow window) {
+        Map<String, BigDecimal> resultMap = new HashMap<>();
+
+        if (!isValidCategories(categories)) {
+            return resultMap;
+        }
+
+        getSpendingByCategoryTypes(users, AnalyticsService.toCategoryTypes(categories), window)
+                .forEach((category, sum) -> resultMap.put(category.name(), sum));
+        return resultMap;
+    }
+
+    /**
+     * Метод возвращает EnumMap, где ключом является категория, а значением — сумма, потраченная всеми
+     * пользователями за окно
+     *
+     * @param users пользователи
+     * @param categories категории
+     * @param window окно трат
+     * @return EnumMap категорий, по которым были платежи в окне
+     */
+    public EnumMap<CategoryType, BigDecimal> getSpendingByCategoryTypes(Collection<User> users,
+                                                                       Set<CategoryType> categories,
+                                                                       SpendingWindow window) {
+        if (users == null || users.isEmpty() || categories == null || categories.isEmpty() || window == null) {
+            return new EnumMap<>(CategoryType.class);
+        }
+
+        List<User> userList = new ArrayList<>(users);
+        LocalDate today = analyticsService.today();
+        return pool.invoke(new SpendingTask(userList, 0, userList.size(), threshold(userList.size()), categories,
+                window.start(today), today)).toEnumMap();
+    }
+
+    /**
+     * Метод возвращает PriorityQueue, содержащую топ-N самых больших платежей среди всех пользователей
+     *
+     * @param users пользователи
+     * @param n кол-во транзакций
+     * @return PriorityQueue, содержащую топ-N самых больших транзакций, начиная с наибольшей
+     */
+    public PriorityQueue<Transaction> getTopNLargestTransactions(Collection<User> users, int n) {
+        PriorityQueue<Transaction> queueTopPayments =
+                new PriorityQueue<>(new AnalyticsService.TransactionAmountComparator());
+
+        if (users == null || users.isEmpty() || n <= 0) {
+            return queueTopPayments;
+        }
+
+        List<User> userList = new ArrayList<>(users);
+        queueTopPayments.addAll(pool.invoke(
+                new TopNTask(userList, 0, userList.size(), threshold(userList.size()), n)));
+        return queueTopPayments;
+    }
+
+    /**
+     * Метод останавливает потоки пула
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private int threshold(int userCount) {
+        return Math.max(MIN_USERS_PER_TASK, userCount / (pool.getParallelism() * TASKS_PER_THREAD));
+    }
+
+    /**
+     * Задача суммирует траты отрезка пользователей в собственный массив сумм по категориям.
+     * Границы окна вычисляются один раз на весь вызов, чтобы все пользователи считались за одни и те же дни.
+     */
+    @SuppressWarnings("serial")
+    private class SpendingTask extends RecursiveTask<CategoryTotals> {
+        private final List<User> users;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final Set<CategoryType> categoryTypes;
+        private final LocalDate firstDay;
+        private final LocalDate lastDay;
+
+        SpendingTask(List<User> users, int from, int to, int threshold, Set<CategoryType> categoryTypes,
+                     LocalDate firstDay, LocalDate lastDay) {
+            this.users = users;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.categoryTypes = categoryTypes;
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+        }
+
+        @Override
+        protected CategoryTotals compute() {
+            if (to - from <= threshold) {
+                CategoryTotals partial = new CategoryTotals();
+                for (int i = from; i < to; i++) {
+                    User user = users.get(i);
+                    if (user != null) {
+                        analyticsService.collectSpending(user, categoryTypes, firstDay, lastDay, partial);
+                    }
+                }
+                return partial;
+            }
+
+            int middle = (from + to) >>> 1;
+            SpendingTask left = new SpendingTask(users, from, middle, threshold, categoryTypes, firstDay, lastDay);
+            left.fork();
+            CategoryTotals result =
+                    new SpendingTask(users, middle, to, threshold, categoryTypes, firstDay, lastDay).compute();
+            result.addAll(left.join());
+            return result;
+        }
+    }
+
+    /**
+     * Задача отбирает топ-N платежей отрезка пользователей в собственную кучу
+     */
+    @SuppressWarnings("serial")
+    private class TopNTask extends RecursiveTask<PriorityQueue<Transaction>> {
+        private final List<User> users;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final int n;
+
+        TopNTask(List<User> users, int from, int to, int threshold, int n) {
+            this.users = users;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.n = n;
+        }
+
+        @Override
+        protected PriorityQueue<Transaction> compute() {
+            if (to - from <= threshold) {
+                PriorityQueue<Transaction> smallestOnTop =
+                        new PriorityQueue<>(Math.min(n, AnalyticsService.TOP_N_INITIAL_CAPACITY),
+                                Comparator.comparing(Transaction::getAmount));
+                for (int i = from; i < to; i++) {
+                    User user = users.get(i);
+                    if (user != null) {
+                        analyticsService.collectTopN(user, n, LocalDateTime.MIN, LocalDateTime.MAX, null,
+                                smallestOnTop);
+                    }
+                }
+                return smallestOnTop;
+            }
+
+            int middle = (from + to) >>> 1;
+            TopNTask left = new TopNTask(users, from, middle, threshold, n);
+            left.fork();
+            PriorityQueue<Transaction> result = new TopNTask(users, middle, to, threshold, n).compute();
+            for (Transaction transaction : left.join()) {
+                if (result.size() < n) {
+                    result.add(transaction);
+                } else if (transaction.getAmount().compareTo(result.peek().getAmount()) > 0) {
+                    result.poll();
+                    result.add(transaction);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.example.service;
+
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Кеш результатов запросов аналитики, которые дашборды повторяют между изменениями счетов.
+ * Запись кеша хранит версии счетов пользователя, по которым был посчитан результат, и отдается, только пока
+ * версии всех счетов и сам набор счетов не изменились. Поэтому устаревший результат не выдается никогда,
+ * а неизменившийся не пересчитывается. Кеш ограничен по кол-ву записей и вытесняет давно не читавшиеся.
+ * Наружу отдаются копии результатов, чтобы вызывающий не мог испортить запись кеша.
+ */
+public class CachingAnalyticsService {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final AnalyticsService analyticsService;
+    private final int maximumSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Записи в порядке доступа: первой вытесняется та, которую дольше всех не читали
+     */
+    private final LinkedHashMap<Key, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingAnalyticsService(AnalyticsService analyticsService) {
+        this(analyticsService, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Конструктор класса CachingAnalyticsService
+     * @param analyticsService сервис, результаты которого кешируются
+     * @param maximumSize наибольшее кол-во записей в кеше
+     */
+    public CachingAnalyticsService(AnalyticsService analyticsService, int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Размер кеша должен быть положительным: " + maximumSize);
+        }
+        this.analyticsService = analyticsService;
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > CachingAnalyticsService.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Метод возвращает траты пользователя по категориям за последний месяц.
+     * Окно месяца зависит от текущего дня, поэтому день входит в ключ записи.
+     * @see AnalyticsService#getMonthlySpendingByCategories(User, Set)
+     */
+    public Map<String, BigDecimal> getMonthlySpendingByCategories(User user, Set<String> categories) {
+        if (user == null || categories == null) {
+            return analyticsService.getMonthlySpendingByCategories(user, categories);
+        }
+        Map<String, BigDecimal> result = cached(user, Query.MONTHLY_SPENDING_BY_CATEGORIES,
+                List.of(new HashSet<>(categories), analyticsService.today()),
+                () -> analyticsService.getMonthlySpendingByCategories(user, categories));
+        return new HashMap<>(result);
+    }
+
+    /**
+     * Метод возвращает топ-N самых больших транзакций пользователя
+     * @see AnalyticsService#getTopNLargestTransactions(User, int)
+     */
+    public PriorityQueue<Transaction> getTopNLargestTransactions(User user, int n) {
+        return getTopNLargestTransactions(user, n, null, null, null);
+    }
+
+    /**
+     * Метод возвращает топ-N самых больших платежей пользователя за период и по категории
+     * @see AnalyticsService#getTopNLargestTransactions(User, int, LocalDateTime, LocalDateTime, String)
+     */
+    public PriorityQueue<Transaction> getTopNLargestTransactions(User user, int n, LocalDateTime from,
+                                                                 LocalDateTime to, String category) {
+        if (user == null) {
+            return analyticsService.getTopNLargestTransactions(null, n, from, to, category);
+        }
+        PriorityQueue<Transaction> result = cached(user, Query.TOP_N_LARGEST_TRANSACTIONS,
+                Arrays.asList(n, from, to, category),
+                () -> analyticsService.getTopNLargestTransactions(user, n, from, to, category));
+        return new PriorityQueue<>(result);
+    }
+
+    /**
+     * Метод возвращает платежи пользователя по категориям, отсортированные по сумме
+     * @see AnalyticsService#getTransactionHistorySortedByAmount(User)
+     */
+    public LinkedHashMap<String, List<Transaction>> getTransactionHistorySortedByAmount(User user) {
+        if (user == null) {
+            return analyticsService.getTransactionHistorySortedByAmount(null);
+        }
+        LinkedHashMap<String, List<Transaction>> result = cached(user, Query.TRANSACTION_HISTORY_SORTED_BY_AMOUNT,
+                List.of(), () -> analyticsService.getTransactionHistorySortedByAmount(user));
+        LinkedHashMap<String, List<Transaction>> copy = new LinkedHashMap<>();
+        result.forEach((category, payments) -> copy.put(category, new ArrayList<>(payments)));
+        return copy;
+    }
+
+    /**
+     * Метод возвращает кол-во запросов, ответ на которые взят из кеша
+     * @return кол-во попаданий
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Метод возвращает кол-во запросов, ответ на которые пришлось посчитать
+     * @return кол-во промахов
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод очищает кеш
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод возвращает результат из кеша или считает его.
+     * Версии счетов снимаются до расчета: если счет изменится во время расчета, запись окажется старше счета
+     * и при следующем запросе будет посчитана заново. Расчет идет без блокировки кеша, поэтому одновременные
+     * промахи по одному ключу могут посчитать результат несколько раз.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(User user, Query query, List<Object> parameters, Supplier<T> compute) {
+        Key key = new Key(user.getId(), query, parameters);
+        List<BankAccount> accounts = user.getAccounts();
+
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (entry != null && entry.isCurrent(accounts)) {
+            hits.increment();
+            return (T) entry.value();
+        }
+
+        misses.increment();
+        Entry computed = Entry.stamp(accounts, compute);
+        lock.lock();
+        try {
+            entries.put(key, computed);
+        } finally {
+            lock.unlock();
+        }
+        return (T) computed.value();
+    }
+
+    private enum Query {
+        MONTHLY_SPENDING_BY_CATEGORIES,
+        TOP_N_LARGEST_TRANSACTIONS,
+        TRANSACTION_HISTORY_SORTED_BY_AMOUNT
+    }
+
+    private record Key(String userId, Query query, List<Object> parameters) {
+    }
+
+    /**
+     * Результат запроса вместе со счетами пользователя и их версиями на момент расчета
+     */
+    private record Entry(BankAccount[] accounts, long[] versions, Object value) {
+
+        static Entry stamp(List<BankAccount> accounts, Supplier<?> value) {
+            BankAccount[] stamped = accounts.toArray(new BankAccount[0]);
+            long[] versions = new long[stamped.length];
+            for (int i = 0; i < stamped.length; i++) {
+                versions[i] = stamped[i].getVersion();
+            }
+            return new Entry(stamped, versions, value.get());
+        }
+
+        boolean isCurrent(List<BankAccount> current) {
+            if (current.size() != accounts.length) {
+                return false;
+            }
+            for (int i = 0; i < accounts.length; i++) {
+                if (current.get(i) != accounts[i] || accounts[i].getVersion() != versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,16 +1,36 @@
 package org.example.service;
 
+import org.example.dto.TransactionPage;
+import org.example.entity.BankAccount;
 import org.example.entity.Transaction;
 import org.example.entity.User;
+import org.example.history.HistorySpliterator;
+import org.example.history.HistoryView;
+import org.example.id.TransactionId;
+import org.example.query.TransactionQuery;
 
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.example.validators.TransactionValidator.hasUserAccountsWithTransactions;
 
 public class TransactionService {
 
+    /**
+     * номер счета (4) + время (8) + идентификатор последней транзакции (16)
+     */
+    private static final int CURSOR_SIZE = 28;
+
     /**
      * Фильтрует транзакции пользователя по условию
      *
@@ -29,6 +49,46 @@ public class TransactionService {
                 .toList();
     }
 
+    /**
+     * Фильтрует транзакции пользователя по структурированному запросу
+     *
+     * @param user пользователь
+     * @param query запрос
+     * @return список транзакций, удовлетворяющих запросу
+     */
+    public List<Transaction> filterTransactions(User user, TransactionQuery query) {
+        if (!hasUserAccountsWithTransactions(user) || query == null) {
+            return Collections.emptyList();
+        }
+
+        return queryTransactions(user, query).toList();
+    }
+
+    /**
+     * Лениво выбирает транзакции пользователя по структурированному запросу.
+     * Счета, которые по сводке истории не могут содержать подходящих транзакций, пропускаются целиком;
+     * период запроса сужается двоичным поиском по дате, остальные условия проверяются по колонкам истории,
+     * и транзакции собираются только для строк, дошедших до произвольного условия или попавших в результат.
+     *
+     * @param user пользователь
+     * @param query запрос
+     * @return поток транзакций, удовлетворяющих запросу, по счетам в хронологическом порядке
+     */
+    public Stream<Transaction> queryTransactions(User user, TransactionQuery query) {
+        if (user == null || query == null) {
+            return Stream.empty();
+        }
+
+        LocalDateTime from = query.from() != null ? query.from() : LocalDateTime.MIN;
+        LocalDateTime to = query.to() != null ? query.to() : LocalDateTime.MAX;
+        return user.getAccounts().stream()
+                .map(bankAccount -> bankAccount.transactionsBetween(from, to))
+                .filter(query::mayMatch)
+                .flatMap(window -> IntStream.range(0, window.size())
+                        .filter(index -> query.matches(window, index))
+                        .mapToObj(window::get));
+    }
+
     /**
      * Преобразует транзакции пользователя в строковое представление
      *
@@ -59,9 +119,182 @@ public class TransactionService {
             return;
         }
 
-        user.getAccounts().stream()
-                .flatMap(bankAccount -> bankAccount.getTransactions().stream())
-                .forEach(consumer);
+        spliterator(user).forEachRemaining(consumer);
+    }
+
+    /**
+     * Возвращает Spliterator по транзакциям всех счетов пользователя.
+     * Обход идет по снимкам историй без копирования, поэтому транзакции, добавленные после вызова, в него не попадут.
+     *
+     * @param user пользователь
+     * @return Spliterator, который можно делить для параллельной обработки
+     */
+    public Spliterator<Transaction> spliterator(User user) {
+        if (user == null) {
+            return Spliterators.emptySpliterator();
+        }
+
+        List<HistoryView> views = new ArrayList<>(user.getAccounts().size());
+        for (BankAccount bankAccount : user.getAccounts()) {
+            views.add(bankAccount.getTransactions());
+        }
+        return new HistorySpliterator(views);
+    }
+
+    /**
+     * Возвращает ленивый поток транзакций пользователя.
+     * Элементы читаются из истории по мере потребления, поэтому память не зависит от длины истории,
+     * а короткие операции вроде findFirst или limit не просматривают историю целиком.
+     *
+     * @param user пользователь
+     * @return последовательный поток; для параллельной обработки достаточно вызвать parallel()
+     */
+    public Stream<Transaction> streamTransactions(User user) {
+        return StreamSupport.stream(spliterator(user), false);
+    }
+
+    /**
+     * Лениво фильтрует транзакции пользователя по условию
+     *
+     * @param user пользователь
+     * @param predicate интерфейс условие фильтрации
+     * @return поток транзакций, удовлетворяющих условию
+     */
+    public Stream<Transaction> filterTransactionsLazily(User user, Predicate<Transaction> predicate) {
+        if (predicate == null) {
+            return Stream.empty();
+        }
+        return streamTransactions(user).filter(predicate);
+    }
+
+    /**
+     * Лениво преобразует транзакции пользователя в строковое представление
+     *
+     * @param user пользователь
+     * @param function интерфейс функция преобразования
+     * @return поток строковых представлений транзакций
+     */
+    public Stream<String> transformTransactionsLazily(User user, Function<Transaction, String> function) {
+        if (function == null) {
+            return Stream.empty();
+        }
+        return streamTransactions(user).map(function);
+    }
+
+    /**
+     * Читает страницу транзакций пользователя, начиная с позиции курсора.
+     * Курсор хранит номер счета, время и идентификатор последней выданной транзакции. Продолжение ищется
+     * двоичным поиском по времени, поэтому страницы читаются без повторного обхода уже выданных транзакций,
+     * а запоздавшие вставки в историю не сдвигают позицию: транзакции не пропускаются и не повторяются.
+     * Транзакции одного времени выдаются по возрастанию идентификатора. Чтение можно продолжить
+     * в другом процессе или позже.
+     *
+     * @param user пользователь
+     * @param cursor курсор из предыдущей страницы или {@code null} для чтения с начала
+     * @param limit наибольшее кол-во транзакций на странице
+     * @return страница транзакций и курсор следующей страницы
+     */
+    public TransactionPage readTransactions(User user, String cursor, int limit) {
+        if (user == null || limit <= 0) {
+            return new TransactionPage(Collections.emptyList(), null);
+        }
+
+        int account = 0;
+        long timestamp = Long.MIN_VALUE;
+        TransactionId lastId = null;
+        if (cursor != null) {
+            ByteBuffer decoded = decodeCursor(cursor);
+            account = decoded.getInt();
+            timestamp = decoded.getLong();
+            lastId = new TransactionId(decoded.getLong(), decoded.getLong());
+        }
+
+        List<BankAccount> accounts = user.getAccounts();
+        List<Transaction> page = new ArrayList<>(Math.min(limit, 1024));
+        boolean more = false;
+        while (account < accounts.size()) {
+            HistoryView history = accounts.get(account).getTransactions();
+            int position = lastId != null ? history.lowerBound(timestamp) : 0;
+            while (position < history.size() && page.size() < limit) {
+                int groupEnd = position + 1;
+                long groupTimestamp = history.epochMicrosAt(position);
+                while (groupEnd < history.size() && history.epochMicrosAt(groupEnd) == groupTimestamp) {
+                    groupEnd++;
+                }
+                for (int row : rowsById(history, position, groupEnd)) {
+                    TransactionId id = history.idAt(row);
+                    if (lastId != null && groupTimestamp == timestamp && id.compareTo(lastId) <= 0) {
+                        continue;
+                    }
+                    if (page.size() == limit) {
+                        more = true;
+                        break;
+                    }
+                    page.add(history.get(row));
+                    timestamp = groupTimestamp;
+                    lastId = id;
+                }
+                position = groupEnd;
+            }
+            if (page.size() == limit) {
+                more = more || position < history.size() || hasTransactionsAfter(accounts, account);
+                break;
+            }
+            account++;
+            timestamp = Long.MIN_VALUE;
+            lastId = null;
+        }
+
+        return new TransactionPage(page, more ? encodeCursor(account, timestamp, lastId) : null);
+    }
+
+    /**
+     * Метод возвращает позиции отрезка истории с одинаковым временем в порядке возрастания идентификаторов
+     */
+    private static int[] rowsById(HistoryView history, int from, int to) {
+        if (to - from == 1) {
+            return new int[] {from};
+        }
+        return IntStream.range(from, to)
+                .boxed()
+                .sorted((left, right) -> history.idAt(left).compareTo(history.idAt(right)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static boolean hasTransactionsAfter(List<BankAccount> accounts, int account) {
+        for (int i = account + 1; i < accounts.size(); i++) {
+            if (!accounts.get(i).getTransactions().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String encodeCursor(int account, long timestamp, TransactionId lastId) {
+        ByteBuffer buffer = ByteBuffer.allocate(CURSOR_SIZE)
+                .putInt(account)
+                .putLong(timestamp)
+                .putLong(lastId.high())
+                .putLong(lastId.low());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    private static ByteBuffer decodeCursor(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor, e);
+        }
+        if (bytes.length != CURSOR_SIZE) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt(0) < 0) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+        return buffer;
     }
 
     /**
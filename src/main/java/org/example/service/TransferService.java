@@ -0,0 +1,67 @@
+package org.example.service;
+
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.enums.TransactionType;
+import org.example.exceptions.TransferException;
+import org.example.metrics.Metrics;
+import org.example.metrics.Operation;
+import org.example.validators.TransferValidator;
+
+import java.math.BigDecimal;
+
+public class TransferService {
+
+    private final TransferValidator transferValidator = new TransferValidator();
+
+    /**
+     * Метод переводит деньги между двумя счетами.
+     * Блокировки счетов берутся в порядке номеров счетов, поэтому встречные переводы не приводят к взаимной блокировке.
+     *
+     * @param source счет с которого проводится перевод
+     * @param target счет на который делается перевод
+     * @param amount сумма перевода
+     * @return транзакция перевода, сохраненная в истории обоих счетов
+     */
+    public Transaction transfer(BankAccount source, BankAccount target, BigDecimal amount) {
+        long start = Metrics.start();
+        try {
+            return doTransfer(source, target, amount);
+        } catch (TransferException e) {
+            Metrics.reject(Operation.TRANSFER);
+            throw e;
+        } finally {
+            Metrics.stop(Operation.TRANSFER, start);
+        }
+    }
+
+    private Transaction doTransfer(BankAccount source, BankAccount target, BigDecimal amount) {
+        if (source == null || target == null) {
+            throw new TransferException("Не указан счет для перевода");
+        }
+        int order = source.getAccountNumber().compareTo(target.getAccountNumber());
+        if (order == 0) {
+            throw new TransferException("Счета отправителя и получателя совпадают");
+        }
+        transferValidator.validateAmount(amount);
+
+        BankAccount first = order < 0 ? source : target;
+        BankAccount second = order < 0 ? target : source;
+
+        AppliedTransfer applied = first.withLock(() -> second.withLock(() -> {
+            transferValidator.checkBalanceCompareToAmount(source, amount);
+            Transaction transaction = new Transaction(amount, TransactionType.TRANSFER, null, source, target);
+            return new AppliedTransfer(transaction, BankAccount.applyTransfer(transaction));
+        }));
+        if (applied.publication() != null) {
+            applied.publication().run();
+        }
+        return applied.transaction();
+    }
+
+    /**
+     * Проведенный перевод и оповещение подписчиков, которое выполняется после снятия блокировок обоих счетов
+     */
+    private record AppliedTransfer(Transaction transaction, Runnable publication) {
+    }
+}
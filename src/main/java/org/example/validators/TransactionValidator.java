@@ -13,15 +13,7 @@ public class TransactionValidator {
      * @param category передаваемая категория
      */
     public static boolean isValidCategory(String category) {
-        if (category == null || category.isEmpty()) {
-            return false;
-        }
-        for (CategoryType categoryType : CategoryType.values()) {
-            if (categoryType.name().equals(category)) {
-                return true;
-            }
-        }
-        return false;
+        return CategoryType.fromName(category) != null;
     }
 
     /**
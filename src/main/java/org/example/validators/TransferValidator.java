@@ -1,6 +1,8 @@
 package org.example.validators;
 import org.example.entity.BankAccount;
 import org.example.exceptions.TransferException;
+import org.example.history.TransactionHistory;
+import org.example.money.Money;
 
 import java.math.BigDecimal;
 
@@ -24,18 +26,49 @@ public class TransferValidator {
      * @param amount сумма денег в транзакции
      */
     public void checkBalanceCompareToAmount(BankAccount source, BigDecimal amount) {
-        if (source.getBalance().compareTo(amount) <= 0) {
-            throw new TransferException("Недостаточно средств для перевода");
-        }
+        reject(getBalanceRejection(source.getBalanceMoney(), amount));
     }
 
     /**
-     * Метод валидирует сумму перевода
+     * Метод валидирует сумму перевода.
+     * Сумма должна быть положительной, не точнее копейки, помещаться в {@link Money} и сохраняться в истории.
      * @param amount сумма денег в транзакции
      */
     public void validateAmount(BigDecimal amount) {
+        reject(getAmountRejection(amount));
+    }
+
+    /**
+     * Метод возвращает причину, по которой сумма не подходит для перевода, не бросая исключения
+     * @param amount сумма денег в транзакции
+     * @return причина отказа или {@code null}, если сумма допустима
+     */
+    public String getAmountRejection(BigDecimal amount) {
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new TransferException("Сумма перевода меньше нуля");
+            return "Сумма перевода меньше нуля";
+        }
+        if (!TransactionHistory.isStorable(amount)) {
+            return "Сумма перевода вне допустимого диапазона";
+        }
+        return null;
+    }
+
+    /**
+     * Метод возвращает причину, по которой доступных средств не хватает для перевода, не бросая исключения
+     * @param available доступные средства
+     * @param amount сумма денег в транзакции
+     * @return причина отказа или {@code null}, если средств достаточно
+     */
+    public String getBalanceRejection(Money available, BigDecimal amount) {
+        boolean insufficient = Money.isRepresentable(amount)
+                ? available.compareTo(Money.of(amount)) <= 0
+                : available.toBigDecimal().compareTo(amount) <= 0;
+        return insufficient ? "Недостаточно средств для перевода" : null;
+    }
+
+    private static void reject(String reason) {
+        if (reason != null) {
+            throw new TransferException(reason);
         }
     }
 }
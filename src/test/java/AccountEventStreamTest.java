@@ -0,0 +1,186 @@
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.enums.TransactionType;
+import org.example.events.AccountEventStream;
+import org.example.service.AnalyticsService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountEventStreamTest {
+
+    private final AnalyticsService analyticsService = new AnalyticsService();
+
+    @Test
+    public void testSubscribersReceiveEventsInOrder() throws Exception {
+        User user = new User("1", "Джон");
+        analyticsService.createAccount(user, "ACC1");
+        BankAccount account = user.getAccounts().getFirst();
+
+        try (AccountEventStream stream = new AccountEventStream(16)) {
+            List<Long> sequences = new ArrayList<>();
+            List<TransactionType> types = new ArrayList<>();
+            AccountEventStream.Subscription subscription = stream.subscribe("test", (event, sequence, endOfBatch) -> {
+                sequences.add(sequence);
+                types.add(event.getTransaction().getType());
+            });
+            stream.attach(account);
+
+            account.deposit(new BigDecimal("100"));
+            account.withdraw(new BigDecimal("10"));
+            analyticsService.payment(account, "TAXI", new BigDecimal("20"));
+            account.addTransaction(new Transaction(new BigDecimal("5"), TransactionType.DEPOSIT, null, null, account));
+
+            awaitSequence(subscription, 4);
+            assertEquals(List.of(TransactionType.DEPOSIT, TransactionType.WITHDRAWAL, TransactionType.PAYMENT,
+                    TransactionType.WITHDRAWAL, TransactionType.DEPOSIT), types);
+            assertEquals(List.of(0L, 1L, 2L, 3L, 4L), sequences);
+            assertEquals(0, subscription.failures());
+        }
+    }
+
+    @Test
+    public void testSlowSubscriberAppliesBackpressureWithoutLosingEvents() throws Exception {
+        int threads = 4;
+        int perThread = 5_000;
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            User user = new User("user" + i, "Джон");
+            analyticsService.createAccount(user, "ACC" + i);
+            accounts.add(user.getAccounts().getFirst());
+        }
+
+        try (AccountEventStream stream = new AccountEventStream(64)) {
+            AtomicInteger fast = new AtomicInteger();
+            AtomicInteger slow = new AtomicInteger();
+            AtomicInteger batches = new AtomicInteger();
+            AccountEventStream.Subscription fastSubscription = stream.subscribe("fast", (event, sequence, endOfBatch) -> {
+                fast.incrementAndGet();
+                if (endOfBatch) {
+                    batches.incrementAndGet();
+                }
+            });
+            AccountEventStream.Subscription slowSubscription = stream.subscribe("slow", (event, sequence, endOfBatch) -> {
+                slow.incrementAndGet();
+                if (sequence % 1_000 == 0) {
+                    pause();
+                }
+            });
+            accounts.forEach(stream::attach);
+
+            try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (BankAccount account : accounts) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            account.deposit(BigDecimal.ONE);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+
+            long last = threads * perThread - 1;
+            awaitSequence(fastSubscription, last);
+            awaitSequence(slowSubscription, last);
+            assertEquals(threads * perThread, fast.get());
+            assertEquals(threads * perThread, slow.get());
+            assertTrue(batches.get() <= fast.get());
+        }
+    }
+
+    @Test
+    public void testPublisherWaitsForSubscriberWithoutHoldingAccountLock() throws Exception {
+        User user = new User("1", "Джон");
+        analyticsService.createAccount(user, "ACC1");
+        BankAccount account = user.getAccounts().getFirst();
+        int bufferSize = 4;
+
+        try (AccountEventStream stream = new AccountEventStream(bufferSize);
+             ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            CountDownLatch release = new CountDownLatch(1);
+            AccountEventStream.Subscription subscription = stream.subscribe("blocked", (event, sequence, endOfBatch) -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            stream.attach(account);
+
+            Future<?> publisher = executor.submit(() -> {
+                for (int i = 0; i <= bufferSize; i++) {
+                    account.deposit(BigDecimal.ONE);
+                }
+            });
+            while (stream.sequence() < bufferSize) {
+                pause();
+            }
+
+            BigDecimal balance = executor.submit(() -> account.withLock(account::getBalance)).get(5, TimeUnit.SECONDS);
+            assertEquals(0, new BigDecimal(bufferSize + 1).compareTo(balance));
+            assertFalse(publisher.isDone());
+
+            release.countDown();
+            publisher.get(5, TimeUnit.SECONDS);
+            awaitSequence(subscription, bufferSize);
+        }
+    }
+
+    @Test
+    public void testHandlerErrorSkipsEventWithoutStoppingSubscriber() throws Exception {
+        User user = new User("1", "Джон");
+        analyticsService.createAccount(user, "ACC1");
+        BankAccount account = user.getAccounts().getFirst();
+
+        try (AccountEventStream stream = new AccountEventStream(16)) {
+            AtomicInteger handled = new AtomicInteger();
+            AccountEventStream.Subscription subscription = stream.subscribe("failing", (event, sequence, endOfBatch) -> {
+                if (sequence == 0) {
+                    throw new StackOverflowError();
+                }
+                handled.incrementAndGet();
+            });
+            stream.attach(account);
+
+            account.deposit(new BigDecimal("100"));
+            account.deposit(new BigDecimal("50"));
+
+            awaitSequence(subscription, 1);
+            assertEquals(1, subscription.failures());
+            assertEquals(1, handled.get());
+        }
+    }
+
+    private static void awaitSequence(AccountEventStream.Subscription subscription, long sequence)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (subscription.sequence() < sequence && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(sequence, subscription.sequence());
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
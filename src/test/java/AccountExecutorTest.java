@@ -0,0 +1,91 @@
+import org.example.entity.BankAccount;
+import org.example.entity.User;
+import org.example.enums.CategoryType;
+import org.example.exceptions.TransferException;
+import org.example.service.AccountExecutor;
+import org.example.service.AnalyticsService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountExecutorTest {
+
+    private static final int ACCOUNTS = 1000;
+    private static final int REQUESTS_PER_ACCOUNT = 200;
+
+    private final AnalyticsService analyticsService = new AnalyticsService();
+
+    @Test
+    public void testOperationsOfOneAccountRunInOrder() throws Exception {
+        User user = new User("1", "Джон");
+        analyticsService.createAccount(user, "ACC1");
+        BankAccount account = user.getAccounts().getFirst();
+
+        try (AccountExecutor executor = new AccountExecutor(analyticsService)) {
+            executor.deposit(account, new BigDecimal("100"));
+            CompletableFuture<Void> payment = executor.payment(account, CategoryType.TAXI, new BigDecimal("30"));
+            CompletableFuture<Void> overdraft = executor.withdraw(account, new BigDecimal("80"));
+            CompletableFuture<BigDecimal> balance = executor.submit(account, account::getBalance);
+
+            payment.get();
+            ExecutionException error = assertThrows(ExecutionException.class, overdraft::get);
+            assertInstanceOf(TransferException.class, error.getCause());
+            assertEquals(new BigDecimal("70"), balance.get());
+        }
+    }
+
+    /**
+     * Нагрузочный тест: первая операция каждого счета ждет общий сигнал, поэтому все запросы
+     * ставятся в очередь до выполнения первого из них
+     */
+    @Test
+    public void testLoadWithHundredThousandsInFlightRequests() throws Exception {
+        List<BankAccount> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            User user = new User("user" + i, "Джон");
+            analyticsService.createAccount(user, "ACC" + i);
+            accounts.add(user.getAccounts().getFirst());
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(ACCOUNTS * REQUESTS_PER_ACCOUNT);
+        CountDownLatch gate = new CountDownLatch(1);
+        AccountExecutor executor = new AccountExecutor(analyticsService);
+        try (executor) {
+            for (BankAccount account : accounts) {
+                executor.submit(account, () -> {
+                    gate.await();
+                    return null;
+                });
+            }
+            for (int round = 0; round < REQUESTS_PER_ACCOUNT / 2; round++) {
+                for (BankAccount account : accounts) {
+                    futures.add(executor.deposit(account, new BigDecimal("10")));
+                    futures.add(executor.payment(account, CategoryType.RESTAURANT, new BigDecimal("4")));
+                }
+            }
+            assertEquals(ACCOUNTS, executor.activeAccounts());
+            assertTrue(futures.stream().noneMatch(CompletableFuture::isDone));
+
+            gate.countDown();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }
+        assertEquals(0, executor.activeAccounts());
+
+        // платеж записывается в историю двумя транзакциями: платежом и списанием
+        BigDecimal expected = new BigDecimal(6 * REQUESTS_PER_ACCOUNT / 2);
+        for (BankAccount account : accounts) {
+            assertEquals(expected, account.getBalance());
+            assertEquals(REQUESTS_PER_ACCOUNT / 2 * 3, account.getTransactions().size());
+        }
+    }
+}
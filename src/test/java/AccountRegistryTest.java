@@ -0,0 +1,117 @@
+import org.example.entity.BankAccount;
+import org.example.entity.User;
+import org.example.registry.AccountRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AccountRegistryTest {
+
+    @Test
+    public void testCreateAndFindAccount() {
+        AccountRegistry registry = new AccountRegistry();
+        User user = new User("1", "Джон");
+        BankAccount account = registry.createAccount(user, "ACC1");
+
+        assertSame(account, registry.findAccount("ACC1"));
+        assertSame(user, registry.findUser("1"));
+        assertSame(account, user.getAccounts().getFirst());
+        assertNull(registry.findAccount("ACC2"));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.createAccount(user, "ACC1"));
+        assertEquals(1, user.getAccounts().size());
+
+        assertSame(account, registry.removeAccount("ACC1"));
+        assertNull(registry.findAccount("ACC1"));
+        assertEquals(0, registry.accountCount());
+    }
+
+    @Test
+    public void testRegisterUserRejectsTakenAccountNumberWithoutPartialRegistration() {
+        AccountRegistry registry = new AccountRegistry();
+        User owner = new User("1", "Джон");
+        BankAccount taken = registry.createAccount(owner, "ACC2");
+
+        User user = new User("2", "Джейн");
+        user.addAccount(new BankAccount("ACC1", user));
+        user.addAccount(new BankAccount("ACC2", user));
+        user.addAccount(new BankAccount("ACC3", user));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.registerUser(user));
+        assertNull(registry.findUser("2"));
+        assertNull(registry.findAccount("ACC1"));
+        assertNull(registry.findAccount("ACC3"));
+        assertSame(taken, registry.findAccount("ACC2"));
+        assertEquals(1, registry.accountCount());
+        assertEquals(1, registry.userCount());
+    }
+
+    @Test
+    public void testBulkLoadAndRemove() {
+        int count = 100_000;
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User("user" + i, "Джон");
+            user.addAccount(new BankAccount("ACC" + i, user));
+            users.add(user);
+        }
+
+        AccountRegistry registry = new AccountRegistry(count / 4, 2);
+        assertEquals(0, registry.loadUsers(users));
+        assertEquals(2, registry.loadUsers(users.subList(0, 1)));
+        assertEquals(count, registry.accountCount());
+        assertEquals(count, registry.userCount());
+
+        for (int i = 0; i < count; i += 2) {
+            registry.removeAccount("ACC" + i);
+        }
+        for (int i = 0; i < count; i++) {
+            BankAccount found = registry.findAccount("ACC" + i);
+            if (i % 2 == 0) {
+                assertNull(found);
+            } else {
+                assertSame(users.get(i).getAccounts().getFirst(), found);
+            }
+        }
+        assertEquals(count / 2, registry.accountCount());
+    }
+
+    @Test
+    public void testConcurrentRegistration() throws Exception {
+        AccountRegistry registry = new AccountRegistry();
+        int threads = 8;
+        int perThread = 5_000;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    User user = new User("user" + thread, "Джон");
+                    for (int i = 0; i < perThread; i++) {
+                        registry.createAccount(user, "ACC" + thread + "-" + i);
+                        registry.findAccount("ACC" + ((thread + 1) % threads) + "-" + i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals((long) threads * perThread, registry.accountCount());
+        assertEquals(threads, registry.userCount());
+        for (int t = 0; t < threads; t++) {
+            assertEquals(perThread, registry.findUser("user" + t).getAccounts().size());
+        }
+    }
+}
@@ -1,15 +1,27 @@
+import org.example.dto.PaymentBatchResult;
+import org.example.dto.PaymentRejection;
+import org.example.dto.PaymentRequest;
 import org.example.entity.BankAccount;
 import org.example.entity.Transaction;
 import org.example.entity.User;
+import org.example.enums.CategoryType;
+import org.example.enums.SpendingWindow;
 import org.example.enums.TransactionType;
+import org.example.exceptions.TransferException;
 import org.example.service.AnalyticsService;
+import org.example.service.TransferService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class AnalyticsServiceTest {
 
@@ -37,6 +49,22 @@ public class AnalyticsServiceTest {
         analyticsService.payment(acc1, OTHER_CATEGORY, new BigDecimal("800"));
     }
 
+    @Test
+    public void testPaymentsBatch() {
+        List<PaymentRequest> requests = List.of(
+                new PaymentRequest(TAXI_CATEGORY, new BigDecimal("300")),
+                new PaymentRequest("TAXI11", new BigDecimal("10")),
+                new PaymentRequest(OTHER_CATEGORY, new BigDecimal("5000")),
+                new PaymentRequest(OTHER_CATEGORY, new BigDecimal("100")));
+
+        PaymentBatchResult result = analyticsService.paymentsBatch(acc1, requests);
+
+        assertEquals(2, result.getPayments().size());
+        assertEquals(List.of(1, 2), result.getRejections().stream().map(PaymentRejection::getIndex).toList());
+        assertEquals(new BigDecimal("1500"), acc1.getBalance());
+        assertEquals(new BigDecimal("7500"), analyticsService.getMonthlySpendingByCategory(acc1, TAXI_CATEGORY));
+    }
+
     @Test
     public void testGetMonthlySpendingByCategory() {
 
@@ -62,6 +90,69 @@ public class AnalyticsServiceTest {
 
     }
 
+    @Test
+    public void testGetMonthlySpendingByCategoryTypes() {
+        EnumMap<CategoryType, BigDecimal> actual = analyticsService.getMonthlySpendingByCategoryTypes(user,
+                EnumSet.of(CategoryType.TAXI, CategoryType.OTHER, CategoryType.HEALTH));
+
+        assertEquals(Map.of(CategoryType.TAXI, new BigDecimal(7200), CategoryType.OTHER, new BigDecimal(900)), actual);
+        assertEquals(2, analyticsService.getPaymentsByCategorySortedByAmount(user).get(CategoryType.TAXI).size());
+    }
+
+    @Test
+    public void testSpendingWindowsFollowClock() {
+        BankAccount account = new BankAccount("ACC789", user);
+        LocalDate today = LocalDate.of(2024, 3, 20);
+        for (int daysAgo : new int[] {0, 5, 10, 25, 40}) {
+            account.addTransaction(new Transaction(UUID.randomUUID().toString(), new BigDecimal(daysAgo + 1),
+                    TransactionType.PAYMENT, CategoryType.TAXI, today.minusDays(daysAgo).atTime(12, 0), account, null));
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        AnalyticsService service = new AnalyticsService(Clock.fixed(today.atStartOfDay(zone).toInstant(), zone));
+
+        assertEquals(new BigDecimal(7), service.getSpendingByCategory(account, TAXI_CATEGORY, SpendingWindow.LAST_7_DAYS));
+        assertEquals(new BigDecimal(44), service.getSpendingByCategory(account, TAXI_CATEGORY, SpendingWindow.LAST_30_DAYS));
+        assertEquals(new BigDecimal(18), service.getSpendingByCategory(account, TAXI_CATEGORY, SpendingWindow.CURRENT_MONTH));
+
+        AnalyticsService later = new AnalyticsService(
+                Clock.fixed(today.plusDays(6).atStartOfDay(zone).toInstant(), zone));
+        assertEquals(new BigDecimal(1), later.getSpendingByCategory(account, TAXI_CATEGORY, SpendingWindow.LAST_7_DAYS));
+    }
+
+    @Test
+    public void testUnstorableTransactionLeavesAccountUntouched() {
+        BankAccount account = new BankAccount("ACC789", user);
+        long version = account.getVersion();
+
+        assertThrows(IllegalArgumentException.class, () -> account.addTransaction(new Transaction(
+                new BigDecimal("0.001"), TransactionType.PAYMENT, CategoryType.TAXI, account, null)));
+
+        assertEquals(0, account.getTransactions().size());
+        assertEquals(version, account.getVersion());
+        assertEquals(BigDecimal.ZERO, analyticsService.getSpendingByCategory(account, TAXI_CATEGORY, SpendingWindow.LAST_7_DAYS));
+    }
+
+    @Test
+    public void testUnstorableAmountIsRejectedByEveryOperation() {
+        BankAccount target = new BankAccount("ACC789", user);
+        BigDecimal unstorable = new BigDecimal("1.0000000000000000000000");
+        BigDecimal balance = acc1.getBalance();
+        int history = acc1.getTransactions().size();
+
+        assertThrows(TransferException.class, () -> acc1.deposit(unstorable));
+        assertThrows(TransferException.class, () -> acc1.withdraw(unstorable));
+        assertThrows(TransferException.class, () -> analyticsService.payment(acc1, TAXI_CATEGORY, unstorable));
+        assertThrows(TransferException.class, () -> new TransferService().transfer(acc1, target, unstorable));
+        PaymentBatchResult result = analyticsService.paymentsBatch(acc1,
+                List.of(new PaymentRequest(TAXI_CATEGORY, unstorable)));
+
+        assertEquals(1, result.getRejections().size());
+        assertEquals(balance, acc1.getBalance());
+        assertEquals(history, acc1.getTransactions().size());
+        assertEquals(BigDecimal.ZERO, target.getBalance());
+        assertEquals(0, target.getTransactions().size());
+    }
+
     @Test
     public void testGetTransactionHistorySortedByAmount() {
 
@@ -74,6 +165,20 @@ public class AnalyticsServiceTest {
         assertEquals(new BigDecimal("800"), transactionsOther.getFirst().getAmount());
     }
 
+    @Test
+    public void testGetPaymentsByCategorySortedByAmountPage() {
+        analyticsService.payment(acc1, TAXI_CATEGORY, new BigDecimal("500"));
+
+        EnumMap<CategoryType, List<Transaction>> page = analyticsService.getPaymentsByCategorySortedByAmount(user, 1, 1);
+
+        assertEquals(new BigDecimal("500"), page.get(CategoryType.TAXI).getFirst().getAmount());
+        assertEquals(List.of(new BigDecimal("100")),
+                page.get(CategoryType.OTHER).stream().map(Transaction::getAmount).toList());
+        assertEquals(List.of(new BigDecimal("500"), new BigDecimal("200")),
+                analyticsService.getPaymentsSortedByAmount(user, CategoryType.TAXI, 1, 5).stream()
+                        .map(Transaction::getAmount).toList());
+    }
+
     @Test
     public void testGetLastNTransactions() {
         List<Transaction> result = analyticsService.getLastNTransactions(user, 8);
@@ -87,6 +192,22 @@ public class AnalyticsServiceTest {
         assertEquals(TransactionType.PAYMENT, result.get(1).getType());
     }
 
+    @Test
+    public void testGetLastNTransactionsAcrossAccounts() {
+        analyticsService.createAccount(user, "ACC456");
+        BankAccount acc2 = user.getAccounts().get(1);
+        acc2.deposit(new BigDecimal("500"));
+        analyticsService.payment(acc2, TAXI_CATEGORY, new BigDecimal("50"));
+
+        List<Transaction> result = analyticsService.getLastNTransactions(user, 4);
+
+        assertEquals(4, result.size());
+        for (int i = 1; i < result.size(); i++) {
+            assertFalse(result.get(i).getDate().isAfter(result.get(i - 1).getDate()));
+        }
+        assertEquals(new BigDecimal("50"), result.getFirst().getAmount());
+    }
+
     @Test
     public void testGetTopNLargestTransactions() {
 
@@ -96,6 +217,15 @@ public class AnalyticsServiceTest {
         assertEquals(new BigDecimal("800"), result.poll().getAmount());
     }
 
+    @Test
+    public void testGetTopNLargestTransactionsWithUnboundedN() {
+
+        PriorityQueue<Transaction> result = analyticsService.getTopNLargestTransactions(user, Integer.MAX_VALUE);
+
+        assertEquals(4, result.size());
+        assertEquals(new BigDecimal("7000"), result.peek().getAmount());
+    }
+
     @Test
     public void testAnalyzePerformance() {
 
@@ -0,0 +1,182 @@
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.enums.CategoryType;
+import org.example.enums.TransactionType;
+import org.example.exceptions.TransferException;
+import org.example.history.HistoryView;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BankAccountTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Test
+    public void testRangeAndLatestViews() {
+        BankAccount account = new BankAccount("ACC1", new User("1", "Джон"));
+        List<Transaction> added = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Transaction transaction = deposit(account, i + 1, START.plusHours(i));
+            account.addTransaction(transaction);
+            added.add(transaction);
+        }
+        Transaction late = deposit(account, 100, START.plusHours(4).plusMinutes(30));
+        account.addTransaction(late);
+        added.add(5, late);
+
+        assertEquals(added.subList(2, 6), account.transactionsBetween(START.plusHours(2), START.plusHours(5)));
+        assertEquals(added.subList(5, 6),
+                account.transactionsBetween(START.plusHours(4).plusMinutes(30), START.plusHours(4).plusMinutes(31)));
+        assertTrue(account.transactionsBetween(START.minusDays(1), START).isEmpty());
+        assertTrue(account.transactionsBetween(START.plusHours(5), START.plusHours(2)).isEmpty());
+        assertEquals(added, account.transactionsBetween(START, START.plusDays(1)));
+
+        HistoryView latest = account.latest(3);
+        assertEquals(List.of(added.get(10), added.get(9), added.get(8)), latest);
+        assertEquals(0, new BigDecimal("10").compareTo(latest.amountAt(0)));
+        assertEquals(11, account.latest(50).size());
+        assertEquals(added.getFirst(), account.latest(50).getLast());
+        assertTrue(account.latest(0).isEmpty());
+        assertTrue(account.latest(-1).isEmpty());
+    }
+
+    @Test
+    public void testSnapshotsDoNotChangeAfterLaterOperations() {
+        User user = new User("1", "Джон");
+        BankAccount account = new BankAccount("ACC1", user);
+        user.addAccount(account);
+        account.deposit(new BigDecimal("100"));
+        account.withdraw(new BigDecimal("30"));
+
+        HistoryView history = account.getTransactions();
+        HistoryView latest = account.latest(5);
+        List<BankAccount> accounts = user.getAccounts();
+        List<Transaction> copy = List.copyOf(history);
+
+        account.deposit(new BigDecimal("5"));
+        account.addTransaction(deposit(account, 1, START));
+        user.addAccount(new BankAccount("ACC2", user));
+
+        assertEquals(copy, history);
+        assertEquals(2, latest.size());
+        assertEquals(List.of(account), accounts);
+        assertEquals(4, account.getTransactions().size());
+        assertEquals(2, user.getAccounts().size());
+
+        assertThrows(UnsupportedOperationException.class, () -> history.add(copy.getFirst()));
+        assertThrows(UnsupportedOperationException.class, () -> history.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> latest.clear());
+        assertThrows(UnsupportedOperationException.class, () -> accounts.add(account));
+        assertThrows(UnsupportedOperationException.class, () -> user.getAccounts().clear());
+        assertEquals(copy, history);
+    }
+
+    @Test
+    public void testConcurrentWithdrawalsAndPaymentsNeverOverdraw() throws Exception {
+        int threads = 8;
+        int attemptsPerThread = 500;
+        BankAccount account = new BankAccount("ACC1", new User("1", "Джон"));
+        account.deposit(new BigDecimal("1000"));
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicBoolean overdrawn = new AtomicBoolean();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+
+        Thread observer = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                if (account.getBalance().signum() < 0) {
+                    overdrawn.set(true);
+                }
+            }
+        });
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                boolean payments = t % 2 == 0;
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        try {
+                            if (payments) {
+                                account.payment(BigDecimal.ONE, CategoryType.TAXI);
+                            } else {
+                                account.withdraw(BigDecimal.ONE);
+                            }
+                            succeeded.incrementAndGet();
+                        } catch (TransferException e) {
+                            // баланс исчерпан
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            running.set(false);
+            observer.join();
+        }
+
+        // списание проходит, только пока баланс больше суммы, поэтому на счете остается одна единица
+        assertFalse(overdrawn.get());
+        assertEquals(999, succeeded.get());
+        assertEquals(0, BigDecimal.ONE.compareTo(account.getBalance()));
+        long withdrawals = account.getTransactions().stream()
+                .filter(transaction -> transaction.getType() == TransactionType.WITHDRAWAL)
+                .count();
+        assertEquals(999, withdrawals);
+    }
+
+    @Test
+    public void testLockOfOneAccountDoesNotBlockAnother() throws Exception {
+        BankAccount locked = new BankAccount("ACC1", new User("1", "Джон"));
+        BankAccount free = new BankAccount("ACC2", new User("2", "Джейн"));
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            Future<?> holder = executor.submit(() -> locked.withLock(() -> {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            held.await();
+
+            executor.submit(() -> free.deposit(BigDecimal.TEN)).get(5, TimeUnit.SECONDS);
+            Future<?> blocked = executor.submit(() -> locked.deposit(BigDecimal.TEN));
+            assertThrows(TimeoutException.class, () -> blocked.get(100, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            blocked.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(0, BigDecimal.TEN.compareTo(free.getBalance()));
+        assertEquals(0, BigDecimal.TEN.compareTo(locked.getBalance()));
+    }
+
+    private static Transaction deposit(BankAccount account, int amount, LocalDateTime date) {
+        return new Transaction(UUID.randomUUID().toString(), new BigDecimal(amount), TransactionType.DEPOSIT, null,
+                date, null, account);
+    }
+}
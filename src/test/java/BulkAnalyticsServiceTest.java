@@ -0,0 +1,95 @@
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.service.AnalyticsService;
+import org.example.service.BulkAnalyticsService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BulkAnalyticsServiceTest {
+
+    private static final int USERS = 2000;
+
+    private final AnalyticsService analyticsService = new AnalyticsService();
+
+    @Test
+    public void testBulkAnalyticsMatchesPerUserResults() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("user" + i, "Джон");
+            analyticsService.createAccount(user, "ACC" + i);
+            BankAccount account = user.getAccounts().getFirst();
+            account.deposit(new BigDecimal("100000"));
+            analyticsService.payment(account, "TAXI", new BigDecimal(i + 1));
+            analyticsService.payment(account, "HEALTH", new BigDecimal("2.50"));
+            users.add(user);
+        }
+
+        try (BulkAnalyticsService bulkAnalyticsService = new BulkAnalyticsService(analyticsService, 4)) {
+            Map<String, BigDecimal> spending =
+                    bulkAnalyticsService.getMonthlySpendingByCategories(users, Set.of("TAXI", "HEALTH"));
+            assertEquals(new BigDecimal(USERS * (USERS + 1) / 2), spending.get("TAXI"));
+            assertEquals(new BigDecimal("5000.00"), spending.get("HEALTH"));
+
+            PriorityQueue<Transaction> top = bulkAnalyticsService.getTopNLargestTransactions(users, 3);
+            assertEquals(List.of(new BigDecimal(USERS), new BigDecimal(USERS - 1), new BigDecimal(USERS - 2)),
+                    List.of(top.poll().getAmount(), top.poll().getAmount(), top.poll().getAmount()));
+        }
+    }
+
+    @Test
+    public void testBulkSpendingReadsClockOncePerCall() {
+        CountingClock clock = new CountingClock();
+        AnalyticsService service = new AnalyticsService(clock);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("user" + i, "Джон");
+            service.createAccount(user, "ACC" + i);
+            BankAccount account = user.getAccounts().getFirst();
+            account.deposit(new BigDecimal("100"));
+            service.payment(account, "TAXI", BigDecimal.ONE);
+            users.add(user);
+        }
+
+        try (BulkAnalyticsService bulkAnalyticsService = new BulkAnalyticsService(service, 4)) {
+            clock.reads.set(0);
+            Map<String, BigDecimal> spending =
+                    bulkAnalyticsService.getMonthlySpendingByCategories(users, Set.of("TAXI"));
+            assertEquals(new BigDecimal(USERS), spending.get("TAXI"));
+            assertEquals(1, clock.reads.get());
+        }
+    }
+
+    private static final class CountingClock extends Clock {
+        private final Clock clock = Clock.systemDefaultZone();
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public ZoneId getZone() {
+            return clock.getZone();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            reads.incrementAndGet();
+            return clock.instant();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.service.AnalyticsService;
+import org.example.service.CachingAnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CachingAnalyticsServiceTest {
+
+    private final AnalyticsService analyticsService = new AnalyticsService();
+    private User user;
+    private BankAccount account;
+
+    @BeforeEach
+    public void setUp() {
+        user = new User("user1", "Джон");
+        analyticsService.createAccount(user, "ACC1");
+        account = user.getAccounts().getFirst();
+        account.deposit(new BigDecimal("1000"));
+        analyticsService.payment(account, "TAXI", new BigDecimal("100"));
+        analyticsService.payment(account, "HEALTH", new BigDecimal("50"));
+    }
+
+    @Test
+    public void testResultIsReusedUntilAccountChanges() {
+        CachingAnalyticsService cache = new CachingAnalyticsService(analyticsService);
+
+        Map<String, BigDecimal> first = cache.getMonthlySpendingByCategories(user, Set.of("TAXI"));
+        first.clear();
+        Map<String, BigDecimal> second = cache.getMonthlySpendingByCategories(user, Set.of("TAXI"));
+        assertEquals(new BigDecimal("100"), second.get("TAXI"));
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.hitCount());
+
+        analyticsService.payment(account, "TAXI", new BigDecimal("25"));
+        assertEquals(new BigDecimal("125"), cache.getMonthlySpendingByCategories(user, Set.of("TAXI")).get("TAXI"));
+        assertEquals(2, cache.missCount());
+
+        PriorityQueue<Transaction> top = cache.getTopNLargestTransactions(user, 1);
+        assertEquals(new BigDecimal("100"), top.poll().getAmount());
+        assertEquals(new BigDecimal("100"), cache.getTopNLargestTransactions(user, 1).peek().getAmount());
+        assertEquals(2, cache.hitCount());
+
+        analyticsService.createAccount(user, "ACC2");
+        BankAccount savings = user.getAccounts().get(1);
+        savings.deposit(new BigDecimal("500"));
+        analyticsService.payment(savings, "TAXI", new BigDecimal("300"));
+        assertEquals(new BigDecimal("300"), cache.getTopNLargestTransactions(user, 1).peek().getAmount());
+
+        List<Transaction> taxi = cache.getTransactionHistorySortedByAmount(user).get("TAXI");
+        assertEquals(3, taxi.size());
+        assertEquals(new BigDecimal("300"), taxi.getFirst().getAmount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        CachingAnalyticsService cache = new CachingAnalyticsService(analyticsService, 2);
+
+        cache.getTopNLargestTransactions(user, 1);
+        cache.getTopNLargestTransactions(user, 2);
+        cache.getTopNLargestTransactions(user, 1);
+        cache.getTopNLargestTransactions(user, 3);
+        assertEquals(2, cache.size());
+
+        cache.getTopNLargestTransactions(user, 1);
+        assertEquals(2, cache.hitCount());
+        cache.getTopNLargestTransactions(user, 2);
+        assertEquals(4, cache.missCount());
+    }
+}
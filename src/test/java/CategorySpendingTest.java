@@ -0,0 +1,62 @@
+import org.example.entity.Transaction;
+import org.example.enums.CategoryType;
+import org.example.enums.TransactionType;
+import org.example.history.CategorySpending;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CategorySpendingTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    public void testTotalsAreKeptPerDayAndCategory() {
+        CategorySpending spending = new CategorySpending();
+        spending.add(transaction(TransactionType.PAYMENT, CategoryType.TAXI, "10.50", DAY.atTime(9, 0)));
+        spending.add(transaction(TransactionType.PAYMENT, CategoryType.TAXI, "4.50", DAY.atTime(23, 59)));
+        spending.add(transaction(TransactionType.PAYMENT, CategoryType.TAXI, "7", DAY.plusDays(1).atStartOfDay()));
+        spending.add(transaction(TransactionType.PAYMENT, CategoryType.HEALTH, "3", DAY.plusDays(2).atTime(12, 0)));
+        spending.add(transaction(TransactionType.WITHDRAWAL, null, "100", DAY.atTime(10, 0)));
+        spending.add(transaction(TransactionType.DEPOSIT, CategoryType.TAXI, "100", DAY.atTime(10, 0)));
+
+        assertEquals(0, new BigDecimal("15").compareTo(spending.getSpending(CategoryType.TAXI, DAY, DAY)));
+        assertEquals(0, new BigDecimal("7").compareTo(
+                spending.getSpending(CategoryType.TAXI, DAY.plusDays(1), DAY.plusDays(1))));
+        assertEquals(0, new BigDecimal("22").compareTo(spending.getSpending(CategoryType.TAXI, DAY)));
+        assertNull(spending.getSpending(CategoryType.TAXI, DAY.plusDays(2)));
+        assertNull(spending.getSpending(CategoryType.HEALTH, DAY, DAY.plusDays(1)));
+        assertNull(spending.getSpending(CategoryType.RESTAURANT, DAY));
+
+        EnumMap<CategoryType, BigDecimal> totals = spending.getSpending(
+                Set.of(CategoryType.TAXI, CategoryType.HEALTH, CategoryType.RESTAURANT), DAY.plusDays(1));
+        assertEquals(Set.of(CategoryType.TAXI, CategoryType.HEALTH), totals.keySet());
+        assertEquals(0, new BigDecimal("7").compareTo(totals.get(CategoryType.TAXI)));
+        assertEquals(0, new BigDecimal("3").compareTo(totals.get(CategoryType.HEALTH)));
+    }
+
+    @Test
+    public void testDaysOlderThanBufferAreDropped() {
+        CategorySpending spending = new CategorySpending();
+        spending.add(transaction(TransactionType.PAYMENT, CategoryType.TAXI, "5", DAY.atStartOfDay()));
+        LocalDate later = DAY.plusDays(CategorySpending.DAYS);
+        spending.add(transaction(TransactionType.PAYMENT, CategoryType.TAXI, "8", later.atStartOfDay()));
+        spending.add(transaction(TransactionType.PAYMENT, CategoryType.TAXI, "2", DAY.atTime(12, 0)));
+
+        assertNull(spending.getSpending(CategoryType.TAXI, DAY, DAY));
+        assertEquals(0, new BigDecimal("8").compareTo(spending.getSpending(CategoryType.TAXI, DAY)));
+    }
+
+    private static Transaction transaction(TransactionType type, CategoryType category, String amount,
+                                           LocalDateTime date) {
+        return new Transaction(UUID.randomUUID().toString(), new BigDecimal(amount), type, category, date, null, null);
+    }
+}
@@ -0,0 +1,97 @@
+import org.example.entity.BankAccount;
+import org.example.entity.User;
+import org.example.enums.CategoryType;
+import org.example.exceptions.TransferException;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.Metrics;
+import org.example.metrics.Operation;
+import org.example.metrics.OperationMetrics;
+import org.example.service.AnalyticsService;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsTest {
+
+    @Test
+    public void testHistogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        assertEquals(50_000.5, histogram.mean(), 1e-9);
+        for (double percentile : new double[] {50, 90, 99, 99.9}) {
+            double exact = percentile * 1_000;
+            long estimate = histogram.valueAtPercentile(percentile);
+            assertTrue(estimate >= exact && estimate <= exact * (1 + 1.0 / LatencyHistogram.SUB_BUCKETS),
+                    percentile + ": " + estimate);
+        }
+        assertEquals(100_000, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    public void testOperationsAndRejectionsAreCounted() throws Exception {
+        AnalyticsService analyticsService = new AnalyticsService();
+        User user = new User("1", "Джон");
+        analyticsService.createAccount(user, "ACC1");
+        BankAccount account = user.getAccounts().getFirst();
+
+        OperationMetrics deposits = Metrics.of(Operation.DEPOSIT);
+        OperationMetrics payments = Metrics.of(Operation.PAYMENT);
+        OperationMetrics withdrawals = Metrics.of(Operation.WITHDRAW);
+        long depositCalls = deposits.calls();
+        long paymentCalls = payments.calls();
+        long paymentRejections = payments.rejections();
+        long withdrawCalls = withdrawals.calls();
+        long historySize = Metrics.historySize();
+
+        account.deposit(new BigDecimal("100"));
+        analyticsService.payment(account, CategoryType.TAXI, new BigDecimal("30"));
+        assertThrows(TransferException.class,
+                () -> analyticsService.payment(account, CategoryType.TAXI, new BigDecimal("500")));
+        analyticsService.getLastNTransactions(user, 10);
+
+        assertTrue(deposits.calls() >= depositCalls + 1);
+        assertTrue(payments.calls() >= paymentCalls + 2);
+        assertTrue(payments.rejections() >= paymentRejections + 1);
+        assertEquals(withdrawCalls, withdrawals.calls(), "списание внутри платежа не считается снятием");
+        assertTrue(Metrics.historySize() >= historySize + 3);
+        assertTrue(Metrics.of(Operation.LAST_N_TRANSACTIONS).latency().count() > 0);
+
+        Metrics.registerMBean();
+        Metrics.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertTrue((Long) server.getAttribute(name, "HistorySize") > 0);
+        assertTrue(server.getAttribute(name, "Calls") != null);
+    }
+
+    @Test
+    public void testOnlyOperationsStartedWhileEnabledAreRecorded() {
+        OperationMetrics transfers = Metrics.of(Operation.TRANSFER);
+        try {
+            Metrics.setEnabled(false);
+            long startedDisabled = Metrics.start();
+            Metrics.setEnabled(true);
+            long recorded = transfers.latency().count();
+            Metrics.stop(Operation.TRANSFER, startedDisabled);
+            assertEquals(recorded, transfers.latency().count());
+
+            long startedEnabled = Metrics.start();
+            Metrics.stop(Operation.TRANSFER, startedEnabled);
+            assertEquals(recorded + 1, transfers.latency().count());
+        } finally {
+            Metrics.setEnabled(true);
+        }
+    }
+}
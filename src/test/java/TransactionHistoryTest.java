@@ -0,0 +1,108 @@
+import org.example.entity.Transaction;
+import org.example.enums.CategoryType;
+import org.example.enums.TransactionType;
+import org.example.history.HistoryView;
+import org.example.history.TransactionHistory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransactionHistoryTest {
+
+    @Test
+    public void testOldTransactionsMoveToColdTier() {
+        TransactionHistory history = new TransactionHistory(Duration.ofDays(30));
+        LocalDateTime start = LocalDateTime.now().minusDays(100);
+        List<Transaction> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Transaction transaction = payment(i, start.plusDays(i));
+            history.add(transaction);
+            expected.add(transaction);
+        }
+        HistoryView before = history.all();
+
+        Transaction late = payment(1000, start.plusDays(10).plusHours(1));
+        history.add(late);
+        expected.add(11, late);
+
+        assertTrue(history.coldSize() > 0);
+        assertEquals(expected, history.all());
+        assertEquals(100, before.size());
+        assertEquals(expected.get(11), history.between(start.plusDays(10).plusMinutes(1), start.plusDays(11)).getFirst());
+        assertEquals(expected.getLast(), history.latest(1).getFirst());
+        assertEquals(new BigDecimal("1000"), history.all().amountAt(11));
+    }
+
+    @Test
+    public void testHotPeriodFollowsClock() {
+        LocalDateTime start = LocalDateTime.now().minusDays(100);
+        ZoneId zone = ZoneId.systemDefault();
+        TransactionHistory past = new TransactionHistory(Duration.ofDays(30),
+                Clock.fixed(start.atZone(zone).toInstant(), zone));
+        TransactionHistory present = new TransactionHistory(Duration.ofDays(30),
+                Clock.fixed(start.plusDays(100).atZone(zone).toInstant(), zone));
+        for (int i = 0; i < 100; i++) {
+            Transaction transaction = payment(i, start.plusDays(i));
+            past.add(transaction);
+            present.add(transaction);
+        }
+
+        assertEquals(0, past.coldSize());
+        assertTrue(present.coldSize() > 0);
+        assertEquals(past.all(), present.all());
+    }
+
+    @Test
+    public void testColdTierGrowsPastFirstChunk() {
+        TransactionHistory history = new TransactionHistory(Duration.ofDays(1));
+        LocalDateTime start = LocalDateTime.now().minusDays(100);
+        List<Transaction> expected = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Transaction transaction = payment(i, start.plusMinutes(i));
+            history.add(transaction);
+            expected.add(transaction);
+        }
+        Transaction late = payment(100_000, start.plusMinutes(10).plusSeconds(1));
+        history.add(late);
+        expected.add(11, late);
+        for (int i = 5_000; i < 8_000; i++) {
+            Transaction transaction = payment(i, start.plusMinutes(i));
+            history.add(transaction);
+            expected.add(transaction);
+        }
+
+        assertTrue(history.coldSize() > 2_048);
+        assertEquals(expected, history.all());
+        assertEquals(new BigDecimal("100000"), history.all().amountAt(11));
+    }
+
+    @Test
+    public void testUnorderedBatchIsInsertedInTimeOrder() {
+        TransactionHistory history = new TransactionHistory(Duration.ofDays(30));
+        LocalDateTime start = LocalDateTime.now().minusDays(10);
+        Transaction first = payment(1, start);
+        history.add(first);
+
+        Transaction third = payment(3, start.plusDays(3));
+        Transaction second = payment(2, start.plusDays(2));
+        history.addAll(List.of(third, second));
+
+        assertEquals(List.of(first, second, third), history.all());
+        assertEquals(third, history.latest(1).getFirst());
+    }
+
+    private static Transaction payment(int amount, LocalDateTime date) {
+        return new Transaction(UUID.randomUUID().toString(), new BigDecimal(amount), TransactionType.PAYMENT,
+                CategoryType.TAXI, date, null, null);
+    }
+}
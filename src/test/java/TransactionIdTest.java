@@ -0,0 +1,63 @@
+import org.example.id.TimeOrderedIdGenerator;
+import org.example.id.TransactionId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransactionIdTest {
+
+    private final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+
+    @Test
+    public void testIdsAreOrderedAndUnique() {
+        TransactionId previous = generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            TransactionId next = generator.next();
+            assertTrue(next.compareTo(previous) > 0);
+            previous = next;
+        }
+
+        Set<TransactionId> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 200_000).parallel().forEach(i -> ids.add(generator.next()));
+        assertEquals(200_000, ids.size());
+    }
+
+    @Test
+    public void testVirtualThreadsShareStripesWithoutCollisions() throws Exception {
+        int threads = 10_000;
+        Set<TransactionId> ids = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < threads; i++) {
+                executor.submit(() -> {
+                    for (int j = 0; j < 10; j++) {
+                        ids.add(generator.next());
+                    }
+                });
+            }
+        }
+
+        assertEquals(threads * 10, ids.size());
+        long nodes = ids.stream().map(id -> UUID.fromString(id.toString()).getLeastSignificantBits() & 0xFFFF_FFFFL)
+                .distinct().count();
+        assertTrue(nodes <= 64);
+    }
+
+    @Test
+    public void testStringFormIsVersion7Uuid() {
+        TransactionId id = generator.next();
+        UUID uuid = UUID.fromString(id.toString());
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(id, TransactionId.parse(id.toString()));
+        assertTrue(Math.abs(System.currentTimeMillis() - id.epochMillis()) < 60_000);
+    }
+}
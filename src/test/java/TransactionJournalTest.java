@@ -0,0 +1,220 @@
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.journal.TransactionJournal;
+import org.example.service.AnalyticsService;
+import org.example.service.TransferService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransactionJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private final AnalyticsService analyticsService = new AnalyticsService();
+    private final TransferService transferService = new TransferService();
+
+    @Test
+    public void testRecoverBalancesAndHistories() throws IOException {
+        User user = new User("user1", "Джон");
+        analyticsService.createAccount(user, "ACC1");
+        analyticsService.createAccount(user, "ACC2");
+        BankAccount acc1 = user.getAccounts().get(0);
+        BankAccount acc2 = user.getAccounts().get(1);
+
+        try (TransactionJournal journal = open()) {
+            journal.attach(acc1);
+            journal.attach(acc2);
+            acc1.deposit(new BigDecimal("10000"));
+            for (int i = 0; i < 100; i++) {
+                analyticsService.payment(acc1, "TAXI", new BigDecimal("10.50"));
+            }
+            transferService.transfer(acc1, acc2, new BigDecimal("500"));
+            journal.sync();
+        }
+
+        try (TransactionJournal journal = open()) {
+            Map<String, BankAccount> recovered = accountsByNumber(journal);
+
+            assertSameState(acc1, recovered.get("ACC1"));
+            assertSameState(acc2, recovered.get("ACC2"));
+            assertEquals(new BigDecimal("1050.00"),
+                    analyticsService.getMonthlySpendingByCategory(recovered.get("ACC1"), "TAXI"));
+
+            recovered.get("ACC2").withdraw(new BigDecimal("100"));
+        }
+
+        try (TransactionJournal journal = open()) {
+            assertEquals(new BigDecimal("400"), accountsByNumber(journal).get("ACC2").getBalance());
+        }
+    }
+
+    @Test
+    public void testSnapshotRemovesCoveredSegments() throws IOException {
+        User user = new User("user1", "Джон");
+        analyticsService.createAccount(user, "ACC1");
+        BankAccount acc1 = user.getAccounts().getFirst();
+
+        try (TransactionJournal journal = open()) {
+            journal.attach(acc1);
+            acc1.deposit(new BigDecimal("100000"));
+            for (int i = 0; i < 500; i++) {
+                analyticsService.payment(acc1, "HEALTH", BigDecimal.ONE);
+            }
+            long segmentsBefore = countFiles("segment-");
+
+            journal.snapshot();
+            acc1.deposit(new BigDecimal("5"));
+
+            assertEquals(1, countFiles("snapshot-"));
+            assertTrue(countFiles("segment-") < segmentsBefore);
+        }
+
+        try (TransactionJournal journal = open()) {
+            assertSameState(acc1, accountsByNumber(journal).get("ACC1"));
+        }
+    }
+
+    @Test
+    public void testTransferIsRecoveredWholeOrNotAtAll() throws IOException {
+        User user = new User("user1", "Джон");
+        analyticsService.createAccount(user, "ACC1");
+        analyticsService.createAccount(user, "ACC2");
+        BankAccount acc1 = user.getAccounts().get(0);
+        BankAccount acc2 = user.getAccounts().get(1);
+
+        try (TransactionJournal journal = open()) {
+            journal.attach(acc1);
+            journal.attach(acc2);
+            acc1.deposit(new BigDecimal("1000"));
+            transferService.transfer(acc1, acc2, new BigDecimal("300"));
+            acc2.withdraw(new BigDecimal("100"));
+        }
+        Path segment = onlySegment();
+        byte[] log = Files.readAllBytes(segment);
+        int transferEnd = endOfFirstTransferFrame(log);
+
+        Files.write(segment, Arrays.copyOf(log, transferEnd));
+        try (TransactionJournal journal = open()) {
+            Map<String, BankAccount> recovered = accountsByNumber(journal);
+            assertEquals(new BigDecimal("700"), recovered.get("ACC1").getBalance());
+            assertEquals(new BigDecimal("300"), recovered.get("ACC2").getBalance());
+            assertEquals(1, recovered.get("ACC2").getTransactions().size());
+        }
+
+        deleteAllExcept(segment);
+        Files.write(segment, Arrays.copyOf(log, transferEnd - 1));
+        try (TransactionJournal journal = open()) {
+            Map<String, BankAccount> recovered = accountsByNumber(journal);
+            assertEquals(new BigDecimal("1000"), recovered.get("ACC1").getBalance());
+            assertEquals(BigDecimal.ZERO, recovered.get("ACC2").getBalance());
+            assertEquals(0, recovered.get("ACC2").getTransactions().size());
+        }
+    }
+
+    @Test
+    public void testFailedLogWriteLeavesAccountUnchanged() {
+        User user = new User("user1", "Джон");
+        analyticsService.createAccount(user, "ACC1");
+        BankAccount acc1 = user.getAccounts().getFirst();
+        acc1.attachLog(changes -> {
+            throw new UncheckedIOException(new IOException("Нет места на диске"));
+        });
+
+        assertThrows(UncheckedIOException.class, () -> acc1.deposit(new BigDecimal("100")));
+        assertEquals(BigDecimal.ZERO, acc1.getBalance());
+        assertEquals(0, acc1.getTransactions().size());
+    }
+
+    /**
+     * Метод находит конец первого кадра перевода: кадра транзакций с разделами двух счетов
+     */
+    private static int endOfFirstTransferFrame(byte[] log) {
+        ByteBuffer buffer = ByteBuffer.wrap(log);
+        while (buffer.remaining() >= 8) {
+            int length = buffer.getInt();
+            buffer.getInt();
+            if (length <= 0) {
+                break;
+            }
+            int body = buffer.position();
+            buffer.position(body + length);
+            if (log[body] == 2 && ByteBuffer.wrap(log, body + 9, 4).getInt() == 2) {
+                return buffer.position();
+            }
+        }
+        throw new AssertionError("В журнале нет кадра перевода");
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(path -> path.getFileName().toString().startsWith("segment-")).toList();
+            assertEquals(1, segments.size());
+            return segments.getFirst();
+        }
+    }
+
+    /**
+     * Метод удаляет файлы, созданные журналом после указанного сегмента
+     */
+    private void deleteAllExcept(Path kept) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                if (!file.equals(kept)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private TransactionJournal open() throws IOException {
+        return TransactionJournal.open(directory, SEGMENT_SIZE, Duration.ofMillis(5), null);
+    }
+
+    private long countFiles(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+
+    private static Map<String, BankAccount> accountsByNumber(TransactionJournal journal) {
+        return journal.getRecoveredUsers().stream()
+                .flatMap(user -> user.getAccounts().stream())
+                .collect(Collectors.toMap(BankAccount::getAccountNumber, Function.identity()));
+    }
+
+    private static void assertSameState(BankAccount expected, BankAccount actual) {
+        assertEquals(expected.getBalance(), actual.getBalance());
+        assertEquals(expected.getOwner().getId(), actual.getOwner().getId());
+
+        List<Transaction> expectedHistory = expected.getTransactions();
+        List<Transaction> actualHistory = actual.getTransactions();
+        assertEquals(expectedHistory, actualHistory);
+        for (int i = 0; i < expectedHistory.size(); i++) {
+            assertEquals(expectedHistory.get(i).getAmount(), actualHistory.get(i).getAmount());
+            assertEquals(expectedHistory.get(i).getDate(), actualHistory.get(i).getDate());
+            assertEquals(expectedHistory.get(i).getType(), actualHistory.get(i).getType());
+        }
+    }
+}
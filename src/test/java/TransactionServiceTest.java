@@ -0,0 +1,114 @@
+import org.example.dto.TransactionPage;
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.enums.CategoryType;
+import org.example.enums.TransactionType;
+import org.example.query.TransactionQuery;
+import org.example.service.AnalyticsService;
+import org.example.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TransactionServiceTest {
+
+    private User user;
+    private TransactionService transactionService;
+
+    @BeforeEach
+    public void setUpBeforeTest() {
+        user = new User("user1", "Джон");
+        transactionService = new TransactionService();
+        AnalyticsService analyticsService = new AnalyticsService();
+
+        for (int account = 0; account < 3; account++) {
+            analyticsService.createAccount(user, "ACC" + account);
+            BankAccount bankAccount = user.getAccounts().get(account);
+            bankAccount.deposit(new BigDecimal("100000"));
+            for (int i = 0; i < 1000; i++) {
+                analyticsService.payment(bankAccount, "TAXI", BigDecimal.ONE);
+            }
+        }
+    }
+
+    @Test
+    public void testStreamTransactions() {
+        List<Transaction> expected = user.getAccounts().stream()
+                .flatMap(bankAccount -> bankAccount.getTransactions().stream())
+                .toList();
+
+        assertEquals(expected, transactionService.streamTransactions(user).toList());
+        assertEquals(expected, transactionService.streamTransactions(user).parallel().toList());
+        assertEquals(3000, transactionService
+                .filterTransactionsLazily(user, transaction -> transaction.getType() == TransactionType.PAYMENT)
+                .parallel()
+                .count());
+    }
+
+    @Test
+    public void testFilterTransactionsByQuery() {
+        BankAccount first = user.getAccounts().getFirst();
+        first.payment(new BigDecimal("500"), CategoryType.HEALTH);
+        first.payment(new BigDecimal("50"), CategoryType.HEALTH);
+
+        TransactionQuery query = TransactionQuery.type(TransactionType.PAYMENT)
+                .and(TransactionQuery.category(CategoryType.HEALTH, CategoryType.RESTAURANT))
+                .and(TransactionQuery.amountBetween(new BigDecimal("100"), null)
+                        .or(TransactionQuery.where(transaction -> transaction.getAmount().intValue() == 50)))
+                .and(TransactionQuery.dateBetween(LocalDateTime.now().minusDays(1), null));
+
+        List<Transaction> expected = transactionService.filterTransactions(user, transaction ->
+                transaction.getType() == TransactionType.PAYMENT
+                        && transaction.getCategory() == CategoryType.HEALTH);
+
+        assertEquals(expected, transactionService.filterTransactions(user, query));
+        assertEquals(2, expected.size());
+        assertEquals(0, transactionService.queryTransactions(user,
+                TransactionQuery.category(CategoryType.AMUSEMENT)).count());
+    }
+
+    @Test
+    public void testReadTransactionsByCursor() {
+        List<Transaction> read = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionPage page = transactionService.readTransactions(user, cursor, 700);
+            read.addAll(page.getTransactions());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(transactionService.streamTransactions(user).toList(), read);
+        assertEquals(9, pages);
+        assertNull(transactionService.readTransactions(user, null, 10_000).getNextCursor());
+    }
+
+    @Test
+    public void testCursorSurvivesLateInsertBeforeIt() {
+        List<Transaction> expected = transactionService.streamTransactions(user).toList();
+        TransactionPage first = transactionService.readTransactions(user, null, 700);
+        List<Transaction> read = new ArrayList<>(first.getTransactions());
+
+        BankAccount account = user.getAccounts().getFirst();
+        account.addTransaction(new Transaction(UUID.randomUUID().toString(), BigDecimal.TEN, TransactionType.DEPOSIT, null,
+                LocalDateTime.now().minusHours(1), null, account));
+
+        String cursor = first.getNextCursor();
+        while (cursor != null) {
+            TransactionPage page = transactionService.readTransactions(user, cursor, 700);
+            read.addAll(page.getTransactions());
+            cursor = page.getNextCursor();
+        }
+        assertEquals(expected, read);
+    }
+}
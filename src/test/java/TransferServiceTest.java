@@ -0,0 +1,110 @@
+import org.example.entity.BankAccount;
+import org.example.entity.Transaction;
+import org.example.entity.User;
+import org.example.enums.TransactionType;
+import org.example.exceptions.TransferException;
+import org.example.service.TransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransferServiceTest {
+
+    private static final int ACCOUNTS = 16;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 20_000;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000");
+
+    private TransferService transferService;
+    private List<BankAccount> accounts;
+
+    @BeforeEach
+    public void setUpBeforeTest() {
+        transferService = new TransferService();
+        accounts = new ArrayList<>();
+
+        User user = new User("user1", "Джон");
+        for (int i = 0; i < ACCOUNTS; i++) {
+            BankAccount account = new BankAccount("ACC" + i, user);
+            account.deposit(INITIAL_BALANCE);
+            user.addAccount(account);
+            accounts.add(account);
+        }
+    }
+
+    @Test
+    public void testTransfer() {
+        BankAccount source = accounts.get(0);
+        BankAccount target = accounts.get(1);
+
+        Transaction transaction = transferService.transfer(source, target, new BigDecimal("300"));
+
+        assertEquals(new BigDecimal("700"), source.getBalance());
+        assertEquals(new BigDecimal("1300"), target.getBalance());
+        assertEquals(transaction, source.latest(1).getFirst());
+        assertEquals(transaction, target.latest(1).getFirst());
+
+        transferService.transfer(source, target, new BigDecimal("0.50"));
+        assertEquals(new BigDecimal("699.50"), source.getBalance());
+    }
+
+    @Test
+    public void testTransferInsufficientFunds() {
+        assertThrows(TransferException.class,
+                () -> transferService.transfer(accounts.get(0), accounts.get(1), new BigDecimal("5000")));
+        assertThrows(TransferException.class,
+                () -> transferService.transfer(accounts.get(0), accounts.get(0), new BigDecimal("10")));
+        assertThrows(TransferException.class,
+                () -> transferService.transfer(accounts.get(0), accounts.get(1), new BigDecimal("0.005")));
+
+        assertEquals(INITIAL_BALANCE, accounts.get(0).getBalance());
+    }
+
+    @Test
+    public void testConcurrentTransfersConserveMoney() throws InterruptedException {
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    BankAccount source = accounts.get(random.nextInt(ACCOUNTS));
+                    BankAccount target = accounts.get(random.nextInt(ACCOUNTS));
+                    try {
+                        transferService.transfer(source, target, BigDecimal.valueOf(random.nextInt(1, 100)));
+                        completed.incrementAndGet();
+                    } catch (TransferException ignored) {
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Переводы не завершились: возможна взаимная блокировка");
+
+        BigDecimal total = BigDecimal.ZERO;
+        long transferRecords = 0;
+        for (BankAccount account : accounts) {
+            total = total.add(account.getBalance());
+            assertTrue(account.getBalance().signum() > 0);
+            transferRecords += account.getTransactions().stream()
+                    .filter(transaction -> TransactionType.TRANSFER.equals(transaction.getType()))
+                    .count();
+        }
+
+        assertEquals(INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)), total);
+        assertEquals(2L * completed.get(), transferRecords);
+    }
+}